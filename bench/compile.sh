@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles the sources and the benchmarks into target/bench-classes, running the JMH annotation
+# processor, and prints the classpath to run them with.
+set -e
+cd "$(dirname "$0")/.."
+CP=$(clojure -Spath -A:bench)
+rm -rf target/bench-classes
+mkdir -p target/bench-classes
+find src/java bench/java -name '*.java' > target/bench-sources.txt
+javac -encoding UTF-8 -nowarn -cp "$CP" -processor org.openjdk.jmh.generators.BenchmarkProcessor \
+  -d target/bench-classes @target/bench-sources.txt >&2
+echo "$CP"
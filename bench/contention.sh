@@ -0,0 +1,6 @@
+#!/bin/sh
+# Compiles, then runs ContentionHarness, e.g.
+#   bench/contention.sh --threads 1,8,32,128 --inputs event-log --jfr target/jfr --out target/contention.jsonl
+set -e
+CP=$("$(dirname "$0")/compile.sh")
+exec java -cp "$CP" lijeur.ContentionHarness "$@"
@@ -0,0 +1,305 @@
+package lijeur;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.lang.reflect.Method;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Function;
+
+/**
+ * Measures {@link Reader2} with many threads reading at once, each with a reader of its own, as
+ * servers do. What the threads share then shows up: the {@code Keyword} table, the
+ * {@code RT.nextID} counter behind syntax-quote gensyms, the Var derefs of
+ * {@link ReaderOptions#fromBindings}, and the process-wide caches.
+ *
+ * <pre>
+ * [--threads 1,2,4,8,16,32,64,128] [--modes platform,virtual] [--corpora shared,distinct]
+ * [--inputs event-log,syntax-quote,clojure-core] [--events 2000] [--warmup 3] [--seconds 10]
+ * [--jfr DIR] [--out results.jsonl]
+ * </pre>
+ *
+ * <p>For every input, corpus, mode and thread count, threads read their corpus over and over
+ * with a new {@link Reader2} each pass, for {@code --warmup} and then {@code --seconds}
+ * seconds, and a {@code "throughput"} JSON line reports the forms and MB read per second, in
+ * total and per thread (mean, min and max). Scaling efficiency is the total over the thread
+ * count times the single-thread total of the same setup, 1.0 for perfect scaling; a thread
+ * count of 1 is always run first for it.
+ *
+ * <p>With {@code shared}, all threads read the same String; with {@code distinct}, each
+ * thread reads its own copy (generated from its own seed where the input has one).
+ * {@code virtual} threads need Java 21 and are skipped before that.
+ *
+ * <p>With {@code --jfr}, each measured window is recorded to a JFR file in that directory,
+ * with monitor, park and virtual-thread pinning events at no threshold, and CPU samples. For each, the
+ * {@code "contention"} JSON lines give the sites where time was blocked or spent most: the
+ * innermost {@code lijeur} or {@code clojure} frame of each event, with its event count and
+ * blocked milliseconds.
+ */
+public final class ContentionHarness {
+
+  private ContentionHarness() {}
+
+  public static void main(String[] args) throws Exception {
+    Map<String, List<String>> opts = ScalingHarness.parseArgs(args, 0, List.of(), new ArrayList<>());
+    List<Integer> threads = new ArrayList<>(List.of(1));
+    for (String n : ScalingHarness.opt(opts, "threads", "1,2,4,8,16,32,64,128").split(",")) {
+      if (!threads.contains(Integer.parseInt(n))) threads.add(Integer.parseInt(n));
+    }
+    int events = Integer.parseInt(ScalingHarness.opt(opts, "events", "2000"));
+    double warmup = Double.parseDouble(ScalingHarness.opt(opts, "warmup", "3"));
+    double seconds = Double.parseDouble(ScalingHarness.opt(opts, "seconds", "10"));
+    Path jfrDir = opts.containsKey("jfr") ? Paths.get(ScalingHarness.opt(opts, "jfr", null)) : null;
+    if (jfrDir != null) Files.createDirectories(jfrDir);
+    PrintStream out = opts.containsKey("out")
+        ? new PrintStream(Files.newOutputStream(Paths.get(ScalingHarness.opt(opts, "out", null))), true, "UTF-8")
+        : null;
+
+    for (String input : ScalingHarness.opt(opts, "inputs", "event-log,syntax-quote,clojure-core").split(",")) {
+      Function<Integer, String> generate = inputGenerator(input, events);
+      String shared = generate.apply(0);
+      for (String corpus : ScalingHarness.opt(opts, "corpora", "shared,distinct").split(",")) {
+        for (String mode : ScalingHarness.opt(opts, "modes", "platform,virtual").split(",")) {
+          if (mode.equals("virtual") && VIRTUAL_UNSTARTED == null) {
+            System.err.println("Skipping virtual threads, which need Java 21");
+            continue;
+          }
+          double single = 0;
+          for (int n : threads) {
+            String[] corpora = new String[n];
+            for (int t = 0; t < n; t++) {
+              corpora[t] = corpus.equals("shared") ? shared : generate.apply(t);
+            }
+            String name = input + "-" + corpus + "-" + mode + "-" + n;
+            Path jfr = jfrDir == null ? null : jfrDir.resolve(name + ".jfr");
+            Map<String, Object> line = measure(corpora, mode, warmup, seconds, jfr);
+            double total = (double) line.get("formsPerSecond");
+            if (n == 1) single = total;
+            Map<String, Object> head = new LinkedHashMap<>();
+            head.put("type", "throughput");
+            head.put("input", input);
+            head.put("corpus", corpus);
+            head.put("mode", mode);
+            head.put("threads", n);
+            head.putAll(line);
+            head.put("efficiency", total / (n * single));
+            emit(out, ScalingHarness.json(head));
+            if (jfr != null) {
+              for (Map<String, Object> site : contention(jfr)) {
+                Map<String, Object> l = new LinkedHashMap<>();
+                l.put("type", "contention");
+                l.put("input", input);
+                l.put("corpus", corpus);
+                l.put("mode", mode);
+                l.put("threads", n);
+                l.putAll(site);
+                emit(out, ScalingHarness.json(l));
+              }
+            }
+          }
+        }
+      }
+    }
+    if (out != null) out.close();
+  }
+
+  private static void emit(PrintStream out, String line) {
+    System.out.println(line);
+    if (out != null) out.println(line);
+  }
+
+  // The input for thread t; distinct threads get distinct seeds where the input has one.
+  private static Function<Integer, String> inputGenerator(String input, int events) {
+    switch (input) {
+      case "event-log": return t -> Corpus.eventLog(events, 42 + t);
+      case "syntax-quote": return t -> new String(Corpus.syntaxQuote(1_000).toCharArray());
+      case "clojure-core": return t -> new String(Corpus.clojureCore().toCharArray());
+      default: throw new IllegalArgumentException("Unknown input: " + input);
+    }
+  }
+
+  // Thread.ofVirtual() and Thread.Builder.unstarted(Runnable), looked up so this compiles and
+  // runs before Java 21; null when there are no virtual threads.
+  private static final Object VIRTUAL_BUILDER;
+  private static final Method VIRTUAL_UNSTARTED;
+  static {
+    Object builder = null;
+    Method unstarted = null;
+    try {
+      builder = Thread.class.getMethod("ofVirtual").invoke(null);
+      unstarted = Class.forName("java.lang.Thread$Builder").getMethod("unstarted", Runnable.class);
+    } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+      unstarted = null;                     // before Java 21
+    }
+    VIRTUAL_BUILDER = builder;
+    VIRTUAL_UNSTARTED = unstarted;
+  }
+
+  private static Thread newThread(String mode, Runnable r) {
+    if (mode.equals("platform")) return new Thread(r);
+    try {
+      return (Thread) VIRTUAL_UNSTARTED.invoke(VIRTUAL_BUILDER, r);
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  // 0 while warming up, 1 while measuring, 2 to stop.
+  private static volatile int phase;
+
+  private static Map<String, Object> measure(String[] corpora, String mode, double warmup, double seconds,
+                                             Path jfr) throws Exception {
+    int n = corpora.length;
+    long[] forms = new long[n];
+    long[] chars = new long[n];
+    Throwable[] failures = new Throwable[n];
+    CountDownLatch ready = new CountDownLatch(n);
+    CountDownLatch go = new CountDownLatch(1);
+    Thread[] workers = new Thread[n];
+    phase = 0;
+    for (int t = 0; t < n; t++) {
+      int id = t;
+      workers[t] = newThread(mode, () -> {
+        try {
+          ready.countDown();
+          go.await();
+          String s = corpora[id];
+          long f = 0;
+          long c = 0;
+          int p;
+          while ((p = phase) < 2) {
+            Reader2 r = new Reader2(new StringReader(s));
+            long from = p == 1 ? 0 : -1;           // offset at which measuring began
+            while (r.read() != Reader2.EOF) {
+              if ((p = phase) == 1) {
+                if (from == -1) from = r.offset();
+                f++;
+              } else if (p == 2) {
+                break;
+              }
+            }
+            if (from != -1) c += r.offset() - from;
+          }
+          forms[id] = f;
+          chars[id] = c;
+        } catch (Throwable e) {
+          failures[id] = e;
+        }
+      });
+      workers[t].start();
+    }
+    ready.await();
+    go.countDown();
+    Thread.sleep((long) (warmup * 1000));
+    Recording recording = jfr == null ? null : startRecording();
+    long t0 = System.nanoTime();
+    phase = 1;
+    Thread.sleep((long) (seconds * 1000));
+    phase = 2;
+    long elapsed = System.nanoTime() - t0;
+    for (Thread w : workers) w.join();
+    if (recording != null) {
+      recording.stop();
+      recording.dump(jfr);
+      recording.close();
+    }
+    for (Throwable e : failures) {
+      if (e != null) throw new IllegalStateException("A reader thread failed", e);
+    }
+
+    double secs = elapsed / 1e9;
+    long totalForms = 0;
+    long totalChars = 0;
+    double min = Double.MAX_VALUE;
+    double max = 0;
+    for (int t = 0; t < n; t++) {
+      totalForms += forms[t];
+      totalChars += chars[t];
+      min = Math.min(min, forms[t] / secs);
+      max = Math.max(max, forms[t] / secs);
+    }
+    Map<String, Object> line = new LinkedHashMap<>();
+    line.put("seconds", secs);
+    line.put("forms", totalForms);
+    line.put("formsPerSecond", totalForms / secs);
+    line.put("mbPerSecond", totalChars / 1e6 / secs);
+    line.put("perThreadFormsPerSecondMean", totalForms / secs / n);
+    line.put("perThreadFormsPerSecondMin", min);
+    line.put("perThreadFormsPerSecondMax", max);
+    return line;
+  }
+
+  private static Recording startRecording() throws IOException, ParseException {
+    Recording r = new Recording(Configuration.getConfiguration("profile"));
+    r.enable("jdk.JavaMonitorEnter").withThreshold(java.time.Duration.ZERO).withStackTrace();
+    r.enable("jdk.JavaMonitorWait").withThreshold(java.time.Duration.ZERO).withStackTrace();
+    r.enable("jdk.ThreadPark").withThreshold(java.time.Duration.ZERO).withStackTrace();
+    r.enable("jdk.VirtualThreadPinned").withThreshold(java.time.Duration.ZERO).withStackTrace();   // Java 21
+    r.enable("jdk.ExecutionSample").withPeriod(java.time.Duration.ofMillis(10));
+    r.start();
+    return r;
+  }
+
+  private static final int TOP_SITES = 10;
+  private static final List<String> EVENTS = List.of("jdk.JavaMonitorEnter", "jdk.JavaMonitorWait",
+      "jdk.ThreadPark", "jdk.VirtualThreadPinned", "jdk.ExecutionSample");
+
+  // The busiest sites of each kind of event in the recording, heaviest first.
+  private static List<Map<String, Object>> contention(Path jfr) throws IOException {
+    Map<String, Map<String, long[]>> byEvent = new LinkedHashMap<>();   // event -> site -> {count, nanos}
+    for (RecordedEvent e : RecordingFile.readAllEvents(jfr)) {
+      String type = e.getEventType().getName();
+      if (!EVENTS.contains(type)) continue;
+      String site = site(e.getStackTrace());
+      if (site == null) continue;
+      long[] acc = byEvent.computeIfAbsent(type, k -> new HashMap<>()).computeIfAbsent(site, k -> new long[2]);
+      acc[0]++;
+      acc[1] += e.getDuration().toNanos();
+    }
+    List<Map<String, Object>> sites = new ArrayList<>();
+    for (Map.Entry<String, Map<String, long[]>> ev : byEvent.entrySet()) {
+      boolean samples = ev.getKey().equals("jdk.ExecutionSample");
+      ev.getValue().entrySet().stream()
+          .sorted((a, b) -> Long.compare(b.getValue()[samples ? 0 : 1], a.getValue()[samples ? 0 : 1]))
+          .limit(TOP_SITES)
+          .forEach(s -> {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("event", ev.getKey());
+            m.put("site", s.getKey());
+            m.put("count", s.getValue()[0]);
+            if (!samples) m.put("blockedMs", s.getValue()[1] / 1e6);
+            sites.add(m);
+          });
+    }
+    return sites;
+  }
+
+  // Innermost frame in lijeur or Clojure, the shared structure an event is charged to.
+  private static String site(RecordedStackTrace stack) {
+    if (stack == null) return null;
+    for (RecordedFrame f : stack.getFrames()) {
+      String cls = f.getMethod().getType().getName();
+      if (cls.startsWith("lijeur.") || cls.startsWith("clojure.")) {
+        if (cls.equals(ContentionHarness.class.getName())) return null;   // the harness waiting
+        return cls + "." + f.getMethod().getName();
+      }
+    }
+    return null;
+  }
+}
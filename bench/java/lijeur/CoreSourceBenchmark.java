@@ -0,0 +1,53 @@
+package lijeur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads all of {@code clojure/core.clj} from the Clojure jar: real code, with every reader
+ * macro, metadata, docstrings and syntax-quoted macro bodies. Only {@code LispReader} reads the
+ * whole language, so it is the one reader compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CoreSourceBenchmark {
+
+  @Param({"64", "1024", "4096", "65536"})
+  public int chunkSize;
+
+  private String input;
+  private ReaderOptions opts;
+
+  @Setup
+  public void setup() {
+    input = Corpus.clojureCore();
+    opts = ReaderOptions.fromBindings();
+  }
+
+  @Benchmark
+  public int reader2(Blackhole bh) throws IOException {
+    return ReadLoops.reader2(input, chunkSize, opts, bh);
+  }
+
+  @Benchmark
+  public int lispReader(Blackhole bh) {
+    return ReadLoops.lispReader(input, chunkSize, bh);
+  }
+}
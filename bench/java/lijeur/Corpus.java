@@ -0,0 +1,256 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+/**
+ * Benchmark inputs. Generated inputs are deterministic for a given seed, so results are
+ * comparable across runs and machines.
+ */
+final class Corpus {
+
+  private Corpus() {}
+
+  /**
+   * {@code count} top-level forms of one token type, in the grammar both {@code LispReader} and
+   * {@code clojure.edn} read (nesting uses lists, which the older {@link Reader} reads too).
+   */
+  static String tokens(String kind, int count, long seed) {
+    Random rnd = new Random(seed);
+    StringBuilder sb = new StringBuilder();
+    switch (kind) {
+      case "longs":
+        for (int i = 0; i < count; i++) sb.append(rnd.nextLong() >> rnd.nextInt(64)).append(' ');
+        break;
+      case "doubles":
+        for (int i = 0; i < count; i++) sb.append(rnd.nextDouble() * 1e6).append(' ');
+        break;
+      case "bigdecimals":
+        for (int i = 0; i < count; i++) {
+          sb.append(rnd.nextInt(1_000_000)).append('.').append(rnd.nextInt(100)).append("M ");
+        }
+        break;
+      case "keywords":
+        for (int i = 0; i < count; i++) sb.append(':').append(NAMES[rnd.nextInt(NAMES.length)]).append(' ');
+        break;
+      case "qualified-keywords":
+        for (int i = 0; i < count; i++) {
+          sb.append(':').append(NAMESPACES[rnd.nextInt(NAMESPACES.length)])
+              .append('/').append(NAMES[rnd.nextInt(NAMES.length)]).append(' ');
+        }
+        break;
+      case "strings":
+        for (int i = 0; i < count; i++) {
+          sb.append('"').append(text(rnd, 8 + rnd.nextInt(56), false)).append("\" ");
+        }
+        break;
+      case "escaped-strings":
+        for (int i = 0; i < count; i++) {
+          sb.append('"').append(text(rnd, 8 + rnd.nextInt(56), true)).append("\" ");
+        }
+        break;
+      case "deep-nesting":
+        // count / 64 lists, each 64 deep with an atom at every level
+        for (int i = 0; i < count / 64; i++) {
+          for (int d = 0; d < 64; d++) sb.append("(").append(d).append(' ');
+          for (int d = 0; d < 64; d++) sb.append(')');
+          sb.append('\n');
+        }
+        break;
+      default:
+        throw new IllegalArgumentException("Unknown token kind: " + kind);
+    }
+    return sb.toString();
+  }
+
+  /** {@code count} syntax-quoted macro templates with gensyms, unquotes and splices. */
+  static String syntaxQuote(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append("`(let [x# ~(nth args ").append(i % 8).append(")]\n")
+          .append("   (when-not (nil? x#)\n")
+          .append("     (str \"v\" ~@body x# :k").append(i % 16).append(" {:a 1 :b [~c ~@d]})))\n");
+    }
+    return sb.toString();
+  }
+
+  /**
+   * The body of a namespace, without its {@code ns} form: {@code count} macros whose bodies are
+   * syntax-quoted templates, each followed by a function that expands it, so loading it
+   * evaluates every expansion the reader produced.
+   */
+  static String syntaxQuoteNamespace(int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      sb.append("(defmacro m").append(i).append(" [x & body]\n")
+          .append("  `(let [v# ~x]\n")
+          .append("     (when-not (nil? v#)\n")
+          .append("       (str \"v\" v# ~@body :k").append(i % 16).append(" {:a 1 :b [~x ~@body]} #{:s ~x}))))\n")
+          .append("(defn f").append(i).append(" [a b] (m").append(i).append(" a b \"s\"))\n");
+    }
+    return sb.toString();
+  }
+
+  /** The source of {@code clojure.core}, as shipped in the Clojure jar. */
+  static String clojureCore() {
+    try (InputStream in = Corpus.class.getClassLoader().getResourceAsStream("clojure/core.clj")) {
+      if (in == null) throw new IllegalStateException("clojure/core.clj is not on the classpath");
+      StringBuilder sb = new StringBuilder();
+      InputStreamReader r = new InputStreamReader(in, StandardCharsets.UTF_8);
+      char[] chunk = new char[8192];
+      for (int n; (n = r.read(chunk)) != -1; ) sb.append(chunk, 0, n);
+      return sb.toString();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * An EDN event log of {@code count} events, one map per line, in the shape of an
+   * application's audit or analytics log: qualified keyword keys, ids and timestamps, nested
+   * maps, sets and vectors, decimals, free text with escapes, and {@code #uuid}/{@code #inst}.
+   */
+  static String eventLog(int count, long seed) {
+    Random rnd = new Random(seed);
+    StringBuilder sb = new StringBuilder();
+    long ts = 1_700_000_000_000L;
+    for (int i = 0; i < count; i++) {
+      ts += rnd.nextInt(5_000);
+      int user = rnd.nextInt(10_000);
+      sb.append("{:event/id ").append(i)
+          .append(" :event/type :").append(EVENT_TYPES[rnd.nextInt(EVENT_TYPES.length)])
+          .append(" :event/ts ").append(ts)
+          .append(" :event/uuid #uuid \"").append(new java.util.UUID(rnd.nextLong(), rnd.nextLong())).append('"')
+          .append(" :event/at #inst \"").append(java.time.Instant.ofEpochMilli(ts)).append('"')
+          .append(" :user {:user/id ").append(user)
+          .append(" :user/name \"user-").append(user).append('"')
+          .append(" :user/roles #{");
+      for (int r = 0, n = 1 + rnd.nextInt(3); r < n; r++) {
+        sb.append(r == 0 ? "" : " ").append(":role/").append(NAMES[r * 7 + rnd.nextInt(7)]);
+      }
+      sb.append("}} :order/items [");
+      for (int k = 0, n = rnd.nextInt(4); k < n; k++) {
+        sb.append(k == 0 ? "" : " ").append("{:sku \"SKU-").append(rnd.nextInt(5_000))
+            .append("\" :qty ").append(1 + rnd.nextInt(9))
+            .append(" :price ").append(rnd.nextInt(500)).append('.').append(10 + rnd.nextInt(90)).append("M}");
+      }
+      sb.append("] :score ").append(rnd.nextDouble())
+          .append(" :note \"").append(text(rnd, rnd.nextInt(80), rnd.nextInt(4) == 0)).append("\"}\n");
+    }
+    return sb.toString();
+  }
+
+  /** The shapes {@link #write} generates, each stressing one way an input can grow. */
+  static final String[] SHAPES = {"wide-maps", "deep-nesting", "long-strings", "numeric-arrays", "huge-strings"};
+
+  /** The default {@code scale} of each shape, in the order of {@link #SHAPES}. */
+  static final int[] DEFAULT_SCALES = {1_000, 500, 4_096, 10_000, 64 << 20};
+
+  /**
+   * Writes top-level forms of one shape to {@code out} until it holds at least {@code bytes}
+   * bytes, and returns its size. The text is ASCII, so its chars and bytes are the same count.
+   * {@code scale} sizes each form:
+   * <ul>
+   * <li>{@code wide-maps}: maps of {@code scale} keyword/value entries
+   * <li>{@code deep-nesting}: vectors nested {@code scale} deep
+   * <li>{@code long-strings}: strings of {@code scale} chars, with escapes
+   * <li>{@code numeric-arrays}: vectors of {@code scale} longs and doubles
+   * <li>{@code huge-strings}: strings of {@code scale} chars, a few per file, so the buffer
+   *     has to hold one whole token far larger than a chunk
+   * </ul>
+   */
+  static long write(Path out, String shape, long bytes, int scale, long seed) throws IOException {
+    Random rnd = new Random(seed);
+    long written = 0;
+    StringBuilder sb = new StringBuilder();
+    try (Writer w = Files.newBufferedWriter(out, StandardCharsets.US_ASCII)) {
+      while (written < bytes) {
+        sb.setLength(0);
+        switch (shape) {
+          case "wide-maps":
+            sb.append('{');
+            for (int i = 0; i < scale; i++) {
+              sb.append(i == 0 ? ":" : " :").append(NAMES[i % NAMES.length]).append('-').append(i).append(' ');
+              if ((i & 1) == 0) sb.append(rnd.nextInt());
+              else sb.append('"').append(text(rnd, 4 + rnd.nextInt(12), false)).append('"');
+            }
+            sb.append('}');
+            break;
+          case "deep-nesting":
+            for (int d = 0; d < scale; d++) sb.append('[').append(d).append(' ');
+            for (int d = 0; d < scale; d++) sb.append(']');
+            break;
+          case "long-strings":
+            sb.append('"').append(text(rnd, scale, true)).append('"');
+            break;
+          case "numeric-arrays":
+            sb.append('[');
+            for (int i = 0; i < scale; i++) {
+              if (i > 0) sb.append(' ');
+              if ((i & 3) == 3) sb.append(rnd.nextDouble() * 1e6);
+              else sb.append(rnd.nextLong() >> rnd.nextInt(64));
+            }
+            sb.append(']');
+            break;
+          case "huge-strings":
+            // written in slices, so the generator itself does not hold the token
+            w.write('"');
+            for (long n = 0; n < scale; n += sb.length()) {
+              sb.setLength(0);
+              sb.append(text(rnd, (int) Math.min(1 << 16, scale - n), false));
+              w.write(sb.toString());
+            }
+            w.write("\"\n");
+            written += scale + 3;
+            continue;
+          default:
+            throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        sb.append('\n');
+        w.write(sb.toString());
+        written += sb.length();
+      }
+    }
+    return written;
+  }
+
+  private static final String[] NAMES = {
+      "id", "name", "type", "value", "status", "created-at", "updated-at", "count", "total",
+      "items", "tags", "owner", "parent", "children", "meta", "source", "target", "kind",
+      "amount", "currency", "enabled?", "version", "path", "score", "label", "index"};
+
+  private static final String[] NAMESPACES = {
+      "user", "order", "event", "app.core", "com.example.billing", "db", "http.request", "ui"};
+
+  private static final String[] EVENT_TYPES = {
+      "user/login", "user/logout", "order/placed", "order/shipped", "order/cancelled",
+      "payment/authorized", "payment/failed", "page/view", "search/query"};
+
+  private static final String WORDS = "the quick brown fox jumps over a lazy dog while ";
+
+  // Plain text; with `escapes`, some chars become \" \\ \n \t or \\uXXXX escapes.
+  private static String text(Random rnd, int len, boolean escapes) {
+    StringBuilder sb = new StringBuilder(len + 8);
+    for (int i = 0; i < len; i++) {
+      if (escapes && rnd.nextInt(8) == 0) {
+        switch (rnd.nextInt(5)) {
+          case 0: sb.append("\\\""); break;
+          case 1: sb.append("\\\\"); break;
+          case 2: sb.append("\\n"); break;
+          case 3: sb.append("\\t"); break;
+          default: sb.append("\\u00e9"); break;
+        }
+      } else {
+        sb.append(WORDS.charAt(rnd.nextInt(WORDS.length())));
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,57 @@
+package lijeur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a generated EDN event log of 10,000 events (see {@link Corpus#eventLog}), about 4 MB,
+ * with {@link Reader2}, {@code LispReader} and {@code clojure.edn}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventLogBenchmark {
+
+  @Param({"64", "1024", "4096", "65536"})
+  public int chunkSize;
+
+  private String input;
+  private ReaderOptions opts;
+
+  @Setup
+  public void setup() {
+    input = Corpus.eventLog(10_000, 42);
+    opts = ReaderOptions.fromBindings();
+  }
+
+  @Benchmark
+  public int reader2(Blackhole bh) throws IOException {
+    return ReadLoops.reader2(input, chunkSize, opts, bh);
+  }
+
+  @Benchmark
+  public int lispReader(Blackhole bh) {
+    return ReadLoops.lispReader(input, chunkSize, bh);
+  }
+
+  @Benchmark
+  public int edn(Blackhole bh) {
+    return ReadLoops.edn(input, chunkSize, bh);
+  }
+}
@@ -0,0 +1,48 @@
+package lijeur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TokenBenchmark} for the older {@link Reader}, over the token kinds it reads: it has no
+ * keywords and rejects some string escapes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LijeurReaderBenchmark {
+
+  @Param({"longs", "doubles", "bigdecimals", "strings", "deep-nesting"})
+  public String kind;
+
+  @Param({"64", "1024", "4096", "65536"})
+  public int chunkSize;
+
+  private String input;
+
+  @Setup
+  public void setup() {
+    input = Corpus.tokens(kind, 10_000, 42);
+  }
+
+  @Benchmark
+  public int lijeurReader(Blackhole bh) throws IOException {
+    return ReadLoops.reader(input, chunkSize, bh);
+  }
+}
@@ -0,0 +1,63 @@
+package lijeur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads with line numbers on, the way the compiler reads source: {@link Reader2} built with
+ * {@code lineNumbers} against {@code LispReader} over a {@code LineNumberingPushbackReader}.
+ * Both attach {@code :line}/{@code :column} metadata to collections and symbols, so the cost
+ * of counting lines and building those maps is included. {@code reader2} is the same read with
+ * line numbers off, for the overhead.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LineNumberBenchmark {
+
+  @Param({"clojure-core", "event-log"})
+  public String input;
+
+  @Param({"64", "4096", "65536"})
+  public int chunkSize;
+
+  private String text;
+  private ReaderOptions opts;
+
+  @Setup
+  public void setup() {
+    text = input.equals("clojure-core") ? Corpus.clojureCore() : Corpus.eventLog(2_000, 42);
+    opts = ReaderOptions.fromBindings();
+  }
+
+  @Benchmark
+  public int reader2(Blackhole bh) throws IOException {
+    return ReadLoops.reader2(text, chunkSize, opts, bh);
+  }
+
+  @Benchmark
+  public int reader2Lines(Blackhole bh) throws IOException {
+    return ReadLoops.reader2Lines(text, chunkSize, opts, bh);
+  }
+
+  @Benchmark
+  public int lispReaderLines(Blackhole bh) {
+    return ReadLoops.lispReaderLines(text, chunkSize, bh);
+  }
+}
@@ -0,0 +1,102 @@
+package lijeur;
+
+import clojure.lang.Compiler;
+import clojure.lang.LineNumberingPushbackReader;
+import clojure.lang.LispReader;
+import clojure.lang.Namespace;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import clojure.lang.Var;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads a namespace of 200 macros with syntax-quoted bodies and 200 functions expanding them:
+ * every form is read and then evaluated, so the time includes compiling the expansions the
+ * reader produced. Compares the default and the compact expansion (see
+ * {@link ReaderOptions#withCompactSyntaxQuote}) with {@code LispReader}; {@link
+ * SyntaxQuoteBenchmark} measures the read alone.
+ *
+ * <p>Each load starts from a fresh namespace, so every {@code defmacro} and {@code defn}
+ * defines a new var rather than redefining one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NamespaceLoadBenchmark {
+
+  private static final Symbol NS_NAME = Symbol.intern("lijeur.bench.syntax-quote");
+  private static final Symbol CLOJURE_CORE = Symbol.intern("clojure.core");
+  private static final Var REFER = RT.var("clojure.core", "refer");
+
+  private String input;
+  private ReaderOptions opts;
+  private ReaderOptions compactOpts;
+
+  @Setup
+  public void setup() {
+    input = Corpus.syntaxQuoteNamespace(200);
+    opts = ReaderOptions.fromBindings();
+    compactOpts = opts.withCompactSyntaxQuote(true);
+  }
+
+  @Benchmark
+  public Object reader2() throws IOException {
+    return load(opts);
+  }
+
+  @Benchmark
+  public Object reader2Compact() throws IOException {
+    return load(compactOpts);
+  }
+
+  @Benchmark
+  public Object lispReader() {
+    enterFreshNamespace();
+    try {
+      LineNumberingPushbackReader r = new LineNumberingPushbackReader(new StringReader(input));
+      Object last = null;
+      for (Object o; (o = LispReader.read(r, false, r, false)) != r; ) last = Compiler.eval(o);
+      return last;
+    } finally {
+      Var.popThreadBindings();
+    }
+  }
+
+  private Object load(ReaderOptions base) throws IOException {
+    Namespace ns = enterFreshNamespace();
+    try {
+      Reader2 r = new Reader2(new StringReader(input), Reader2.DEFAULT_CHUNK_SIZE, base.withNamespace(ns));
+      Object last = null;
+      for (Object o; (o = r.read()) != Reader2.EOF; ) last = Compiler.eval(o);
+      return last;
+    } finally {
+      Var.popThreadBindings();
+    }
+  }
+
+  // Replaces the benchmark namespace with an empty one referring clojure.core, and binds *ns*
+  // to it; the caller pops the binding.
+  private static Namespace enterFreshNamespace() {
+    Namespace.remove(NS_NAME);
+    Namespace ns = Namespace.findOrCreate(NS_NAME);
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, ns));
+    REFER.invoke(CLOJURE_CORE);
+    return ns;
+  }
+}
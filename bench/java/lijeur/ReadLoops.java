@@ -0,0 +1,79 @@
+package lijeur;
+
+import clojure.lang.EdnReader;
+import clojure.lang.IPersistentMap;
+import clojure.lang.Keyword;
+import clojure.lang.LineNumberingPushbackReader;
+import clojure.lang.LispReader;
+import clojure.lang.RT;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.StringReader;
+
+/**
+ * Reads every top-level form of an input with one of the compared readers, handing each form
+ * to a {@link Blackhole}. Returns the number of forms read.
+ *
+ * <p>{@code chunkSize} is the size of the reads from the underlying {@link java.io.Reader}:
+ * {@link Reader2} and {@link Reader} fill their {@link Buffer} that many chars at a time, and
+ * the Clojure readers read through a {@link BufferedReader} of that size, so every reader pulls
+ * its input at the same granularity.
+ */
+final class ReadLoops {
+
+  private ReadLoops() {}
+
+  private static final Object EOF = new Object();
+  private static final IPersistentMap EDN_OPTS = RT.map(Keyword.intern("eof"), EOF);
+
+  static int reader2(String input, int chunkSize, ReaderOptions opts, Blackhole bh) throws IOException {
+    Reader2 r = new Reader2(new StringReader(input), chunkSize, opts);
+    int n = 0;
+    for (Object o; (o = r.read()) != Reader2.EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  // With :line/:column metadata on collections and symbols.
+  static int reader2Lines(String input, int chunkSize, ReaderOptions opts, Blackhole bh) throws IOException {
+    Reader2 r = new Reader2(new StringReader(input), chunkSize, opts, true);
+    int n = 0;
+    for (Object o; (o = r.read()) != Reader2.EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  static int reader(String input, int chunkSize, Blackhole bh) throws IOException {
+    Reader r = new Reader(new StringReader(input), chunkSize, false, EOF, false);
+    int n = 0;
+    for (Object o; (o = r.read()) != EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  static int lispReader(String input, int chunkSize, Blackhole bh) {
+    PushbackReader r = pushback(input, chunkSize);
+    int n = 0;
+    for (Object o; (o = LispReader.read(r, false, EOF, false)) != EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  // LispReader attaches line metadata when reading from a LineNumberingPushbackReader.
+  static int lispReaderLines(String input, int chunkSize, Blackhole bh) {
+    PushbackReader r = new LineNumberingPushbackReader(new BufferedReader(new StringReader(input), chunkSize));
+    int n = 0;
+    for (Object o; (o = LispReader.read(r, false, EOF, false)) != EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  static int edn(String input, int chunkSize, Blackhole bh) {
+    PushbackReader r = pushback(input, chunkSize);
+    int n = 0;
+    for (Object o; (o = EdnReader.read(r, EDN_OPTS)) != EOF; n++) bh.consume(o);
+    return n;
+  }
+
+  private static PushbackReader pushback(String input, int chunkSize) {
+    return new PushbackReader(new BufferedReader(new StringReader(input), chunkSize));
+  }
+}
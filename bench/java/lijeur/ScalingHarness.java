@@ -0,0 +1,280 @@
+package lijeur;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures how {@link Reader2} scales on large inputs (gigabytes, or a few huge tokens): read
+ * throughput over time, the peak size of its buffer, heap and RSS, and GC activity. Results
+ * are JSON lines, so runs can be compared by a script and growth regressions spotted.
+ *
+ * <pre>
+ * generate --shape wide-maps --size 4g [--scale 1000] [--seed 42] --out wide.edn
+ * run --heaps 256m,1g,4g [--chunk 4096] [--retain] [--interval 5] [--jvm-arg ARG]... [--out results.jsonl] FILE...
+ * </pre>
+ *
+ * <p>{@code run} starts one JVM per file and heap size, so every measurement has a heap of its
+ * own, and forwards its JSON lines. A JVM that fails (out of memory, say) is recorded as a
+ * {@code "failed"} line with its exit code. Each measuring JVM prints a {@code "sample"} line
+ * every {@code --interval} seconds and a {@code "result"} line at the end. With
+ * {@code --retain}, the forms read are kept, and the heap they retain is measured after a GC.
+ *
+ * <p>Shapes and scales are described at {@link Corpus#write}. Sizes take a k, m or g suffix.
+ */
+public final class ScalingHarness {
+
+  private ScalingHarness() {}
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 0) throw new IllegalArgumentException("Expected generate, run or measure");
+    List<String> files = new ArrayList<>();
+    Map<String, List<String>> opts = parseArgs(args, 1, List.of("retain"), files);
+    switch (args[0]) {
+      case "generate": generate(opts); break;
+      case "run": run(opts, files); break;
+      case "measure": measure(opts, files.get(0)); break;
+      default: throw new IllegalArgumentException("Unknown command: " + args[0]);
+    }
+  }
+
+  // --name value options from args[from..], a name repeated collecting its values; `flags` take
+  // no value. Other args go to `rest`.
+  static Map<String, List<String>> parseArgs(String[] args, int from, List<String> flags, List<String> rest) {
+    Map<String, List<String>> opts = new LinkedHashMap<>();
+    for (int i = from; i < args.length; i++) {
+      if (!args[i].startsWith("--")) {
+        rest.add(args[i]);
+        continue;
+      }
+      String name = args[i].substring(2);
+      if (!flags.contains(name) && i + 1 == args.length) throw new IllegalArgumentException("No value for " + args[i]);
+      opts.computeIfAbsent(name, k -> new ArrayList<>()).add(flags.contains(name) ? "true" : args[++i]);
+    }
+    return opts;
+  }
+
+  static String opt(Map<String, List<String>> opts, String name, String dflt) {
+    List<String> v = opts.get(name);
+    if (v != null) return v.get(v.size() - 1);
+    if (dflt == null) throw new IllegalArgumentException("Missing --" + name);
+    return dflt;
+  }
+
+  static long parseSize(String s) {
+    char unit = Character.toLowerCase(s.charAt(s.length() - 1));
+    int shift = unit == 'k' ? 10 : unit == 'm' ? 20 : unit == 'g' ? 30 : 0;
+    return Long.parseLong(shift == 0 ? s : s.substring(0, s.length() - 1)) << shift;
+  }
+
+  private static void generate(Map<String, List<String>> opts) throws IOException {
+    String shape = opt(opts, "shape", null);
+    int i = List.of(Corpus.SHAPES).indexOf(shape);
+    if (i == -1) throw new IllegalArgumentException("Unknown shape: " + shape);
+    int scale = (int) parseSize(opt(opts, "scale", Integer.toString(Corpus.DEFAULT_SCALES[i])));
+    Path out = Paths.get(opt(opts, "out", null));
+    long t0 = System.nanoTime();
+    long bytes = Corpus.write(out, shape, parseSize(opt(opts, "size", null)), scale,
+        Long.parseLong(opt(opts, "seed", "42")));
+    Map<String, Object> line = new LinkedHashMap<>();
+    line.put("type", "generated");
+    line.put("file", out.toString());
+    line.put("shape", shape);
+    line.put("scale", scale);
+    line.put("bytes", bytes);
+    line.put("seconds", seconds(System.nanoTime() - t0));
+    System.out.println(json(line));
+  }
+
+  private static void run(Map<String, List<String>> opts, List<String> files) throws Exception {
+    if (files.isEmpty()) throw new IllegalArgumentException("No input files");
+    String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+    PrintStream out = opts.containsKey("out")
+        ? new PrintStream(Files.newOutputStream(Paths.get(opt(opts, "out", null))), true, "UTF-8")
+        : null;
+    for (String file : files) {
+      for (String heap : opt(opts, "heaps", "1g").split(",")) {
+        List<String> cmd = new ArrayList<>(List.of(java, "-Xmx" + heap));
+        cmd.addAll(opts.getOrDefault("jvm-arg", List.of()));
+        cmd.addAll(List.of("-cp", System.getProperty("java.class.path"), ScalingHarness.class.getName(),
+            "measure", "--heap", heap, "--chunk", opt(opts, "chunk", Integer.toString(Reader2.DEFAULT_CHUNK_SIZE)),
+            "--interval", opt(opts, "interval", "5")));
+        if (opts.containsKey("retain")) cmd.add("--retain");
+        cmd.add(file);
+        Process p = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+          for (String line; (line = r.readLine()) != null; ) emit(out, line);
+        }
+        int exit = p.waitFor();
+        if (exit != 0) {
+          Map<String, Object> line = new LinkedHashMap<>();
+          line.put("type", "failed");
+          line.put("file", file);
+          line.put("heap", heap);
+          line.put("exitCode", exit);
+          emit(out, json(line));
+        }
+      }
+    }
+    if (out != null) out.close();
+  }
+
+  private static void emit(PrintStream out, String line) {
+    System.out.println(line);
+    if (out != null) out.println(line);
+  }
+
+  // Longest stop-the-world collection, from the collectors' notifications.
+  private static final AtomicLong gcMaxPauseMs = new AtomicLong();
+
+  private static void measure(Map<String, List<String>> opts, String file) throws IOException {
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      ((NotificationEmitter) gc).addNotificationListener((n, handback) -> {
+        if (!n.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+        GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+        if (info.getGcName().contains("Concurrent") || info.getGcName().contains("Cycles")) return;   // not pauses
+        gcMaxPauseMs.accumulateAndGet(info.getGcInfo().getDuration(), Math::max);
+      }, null, null);
+    }
+    int chunk = (int) parseSize(opt(opts, "chunk", Integer.toString(Reader2.DEFAULT_CHUNK_SIZE)));
+    long intervalNanos = (long) (Double.parseDouble(opt(opts, "interval", "5")) * 1e9);
+    boolean retain = opts.containsKey("retain");
+    List<Object> kept = retain ? new ArrayList<>() : null;
+    long fileBytes = Files.size(Paths.get(file));
+
+    long forms = 0;
+    int peakBuffer = 0;
+    long t0 = System.nanoTime();
+    long lastT = t0;
+    long lastOffset = 0;
+    try (InputStreamReader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+      Reader2 r = new Reader2(in, chunk);
+      for (Object o; (o = r.read()) != Reader2.EOF; ) {
+        forms++;
+        if (retain) kept.add(o);
+        int b = r.bufferCapacity();
+        if (b > peakBuffer) peakBuffer = b;
+        if ((forms & 0xff) == 0 || b > 2 * chunk) {
+          long now = System.nanoTime();
+          if (now - lastT >= intervalNanos) {
+            long offset = r.offset();
+            Map<String, Object> line = new LinkedHashMap<>();
+            line.put("type", "sample");
+            line.put("file", file);
+            line.put("heap", opt(opts, "heap", ""));
+            line.put("seconds", seconds(now - t0));
+            line.put("chars", offset);
+            line.put("forms", forms);
+            line.put("mbPerSecond", (offset - lastOffset) / 1e6 / seconds(now - lastT));
+            line.put("bufferChars", b);
+            line.put("heapUsedBytes", heapUsed());
+            System.out.println(json(line));
+            lastT = now;
+            lastOffset = offset;
+          }
+        }
+      }
+    }
+    long elapsed = System.nanoTime() - t0;
+
+    Map<String, Object> line = new LinkedHashMap<>();
+    line.put("type", "result");
+    line.put("file", file);
+    line.put("heap", opt(opts, "heap", ""));
+    line.put("maxHeapBytes", Runtime.getRuntime().maxMemory());
+    line.put("chunk", chunk);
+    line.put("bytes", fileBytes);
+    line.put("forms", forms);
+    line.put("seconds", seconds(elapsed));
+    line.put("mbPerSecond", fileBytes / 1e6 / seconds(elapsed));
+    line.put("peakBufferChars", peakBuffer);
+    line.put("peakHeapBytes", peakHeap());
+    line.put("peakRssBytes", peakRss());
+    long count = 0;
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += gc.getCollectionCount();
+      time += gc.getCollectionTime();
+    }
+    line.put("gcCount", count);
+    line.put("gcTimeMs", time);
+    line.put("gcMaxPauseMs", gcMaxPauseMs.get());
+    if (retain) {
+      System.gc();
+      line.put("retainedForms", kept.size());
+      line.put("retainedHeapBytes", heapUsed());
+    }
+    System.out.println(json(line));
+  }
+
+  private static double seconds(long nanos) {
+    return nanos / 1e9;
+  }
+
+  private static long heapUsed() {
+    Runtime rt = Runtime.getRuntime();
+    return rt.totalMemory() - rt.freeMemory();
+  }
+
+  // Sum of the heap pools' peak usage; pools peak at different times, so an upper bound.
+  private static long peakHeap() {
+    long sum = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP) sum += pool.getPeakUsage().getUsed();
+    }
+    return sum;
+  }
+
+  // VmHWM from /proc/self/status on Linux, -1 elsewhere.
+  private static long peakRss() {
+    try {
+      for (String l : Files.readAllLines(Paths.get("/proc/self/status"))) {
+        if (l.startsWith("VmHWM:")) return Long.parseLong(l.replaceAll("\\D", "")) << 10;
+      }
+    } catch (IOException | RuntimeException e) {
+      // not Linux
+    }
+    return -1;
+  }
+
+  // One flat JSON object; values are strings or numbers.
+  static String json(Map<String, Object> fields) {
+    StringBuilder sb = new StringBuilder("{");
+    for (Map.Entry<String, Object> e : fields.entrySet()) {
+      if (sb.length() > 1) sb.append(',');
+      sb.append('"').append(e.getKey()).append("\":");
+      Object v = e.getValue();
+      if (v instanceof Number) {
+        sb.append(v);
+      } else {
+        sb.append('"');
+        for (char c : v.toString().toCharArray()) {
+          if (c == '"' || c == '\\') sb.append('\\').append(c);
+          else if (c < ' ') sb.append(String.format("\\u%04x", (int) c));
+          else sb.append(c);
+        }
+        sb.append('"');
+      }
+    }
+    return sb.append('}').toString();
+  }
+}
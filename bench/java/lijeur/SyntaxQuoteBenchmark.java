@@ -0,0 +1,60 @@
+package lijeur;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads 1,000 syntax-quoted macro templates, with the default and the compact expansion (see
+ * {@link ReaderOptions#withCompactSyntaxQuote}). Syntax-quote is not EDN and the older
+ * {@link Reader} does not finish expanding it, so only {@code LispReader} is compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SyntaxQuoteBenchmark {
+
+  @Param({"64", "1024", "4096", "65536"})
+  public int chunkSize;
+
+  private String input;
+  private ReaderOptions opts;
+  private ReaderOptions compactOpts;
+
+  @Setup
+  public void setup() {
+    input = Corpus.syntaxQuote(1_000);
+    opts = ReaderOptions.fromBindings();
+    compactOpts = opts.withCompactSyntaxQuote(true);
+  }
+
+  @Benchmark
+  public int reader2(Blackhole bh) throws IOException {
+    return ReadLoops.reader2(input, chunkSize, opts, bh);
+  }
+
+  @Benchmark
+  public int reader2Compact(Blackhole bh) throws IOException {
+    return ReadLoops.reader2(input, chunkSize, compactOpts, bh);
+  }
+
+  @Benchmark
+  public int lispReader(Blackhole bh) {
+    return ReadLoops.lispReader(input, chunkSize, bh);
+  }
+}
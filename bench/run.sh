@@ -0,0 +1,8 @@
+#!/bin/sh
+# Compiles the sources and the JMH benchmarks, then runs JMH with the GC profiler, which adds
+# allocation per op (gc.alloc.rate.norm) to every result. Arguments go to JMH, e.g.
+#   bench/run.sh TokenBenchmark -p kind=longs,keywords -p chunkSize=4096
+#   bench/run.sh EventLogBenchmark -rf json -rff target/events.json
+set -e
+CP=$("$(dirname "$0")/compile.sh")
+exec java -cp "$CP" org.openjdk.jmh.Main -prof gc "$@"
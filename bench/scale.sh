@@ -0,0 +1,7 @@
+#!/bin/sh
+# Compiles, then runs ScalingHarness, e.g.
+#   bench/scale.sh generate --shape numeric-arrays --size 4g --out /data/numbers.edn
+#   bench/scale.sh run --heaps 256m,1g,4g --out target/scaling.jsonl /data/numbers.edn
+set -e
+CP=$("$(dirname "$0")/compile.sh")
+exec java -cp "$CP" lijeur.ScalingHarness "$@"
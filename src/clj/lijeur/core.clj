@@ -0,0 +1,120 @@
+(ns lijeur.core
+  "Clojure API over lijeur.Reader2.
+
+  read / read-string / read-edn take the same arguments as clojure.edn/read and
+  clojure.edn/read-string, including the opts map (:readers, :default, :eof). forms
+  returns a reducible source of all the top-level forms of an input, so
+  (transduce xf rf (forms file)) runs the reader loop directly."
+  (:refer-clojure :exclude [read read-string])
+  (:require [clojure.java.io :as io])
+  (:import [java.io PushbackReader StringReader]
+           [lijeur Reader2 ReaderOptions]))
+
+(set! *warn-on-reflection* true)
+
+(defn- eof-or-throw [opts]
+  (if (contains? opts :eof)
+    (:eof opts)
+    (throw (RuntimeException. "EOF while reading"))))
+
+(defn- read-one [^ReaderOptions ropts opts ^PushbackReader stream]
+  ;; A chunk size of 1 keeps at most one char of lookahead, which goes back onto the
+  ;; stream afterwards, so consecutive calls see the stream exactly as LispReader leaves it.
+  (let [rdr (Reader2. stream 1 (.withEof ropts Reader2/EOF))
+        form (.read rdr)]
+    (.unreadBuffered rdr stream)
+    (if (identical? form Reader2/EOF)
+      (eof-or-throw opts)
+      form)))
+
+(defn- reader-options
+  "Clojure reader semantics: opts override the current *data-readers*,
+  *default-data-reader-fn* and *read-eval* bindings."
+  ^ReaderOptions [opts]
+  (ReaderOptions/fromMap opts))
+
+(defn- edn-options
+  "clojure.edn semantics: EDN syntax only (no quote, syntax-quote, deref, #(), #', regexes,
+  ::keywords or #=), and only the :readers and :default given in opts (plus the built-in
+  #inst / #uuid readers)."
+  ^ReaderOptions [opts]
+  (.withEdn (ReaderOptions. (:readers opts) (:default opts) Reader2/EOF false nil) true))
+
+(defn read
+  "Reads the next form from stream, a java.io.PushbackReader, with Clojure reader
+  semantics. opts is a clojure.edn style map: :readers and :default take precedence over
+  *data-readers* and *default-data-reader-fn*, :eof is returned at end of input (which
+  otherwise throws), and :read-eval overrides *read-eval*."
+  ([] (read *in*))
+  ([stream] (read {} stream))
+  ([opts stream] (read-one (reader-options opts) opts stream)))
+
+(defn read-edn
+  "Reads the next form from stream, a java.io.PushbackReader. Drop-in for
+  clojure.edn/read: the syntax is EDN's, and only the data readers in opts (and #inst /
+  #uuid) apply."
+  ([] (read-edn *in*))
+  ([stream] (read-edn {} stream))
+  ([opts stream] (read-one (edn-options opts) opts stream)))
+
+(defn read-string
+  "Reads one form from the string s, with the same opts as read. Returns nil when s is nil.
+  Like clojure.edn/read-string, the 1-arity returns nil for an empty string (:eof nil)."
+  ([s] (read-string {:eof nil} s))
+  ([opts ^String s]
+   (when s
+     (let [form (.read (Reader2. (StringReader. s) Reader2/DEFAULT_CHUNK_SIZE
+                                 (.withEof (reader-options opts) Reader2/EOF)))]
+       (if (identical? form Reader2/EOF)
+         (eof-or-throw opts)
+         form)))))
+
+(defn forms
+  "Returns a reducible, iterable source of the top-level forms of source, which can be
+  anything clojure.java.io/reader accepts. Each reduce opens the input, runs the reader
+  loop with no intermediate seq, and closes the input when done, on error, or when the
+  reduction ends early with reduced. Iteration closes the input at end of input.
+
+  Options are captured when forms is called. Pass :edn true in opts for clojure.edn
+  semantics, otherwise opts are as for read."
+  ([source] (forms {} source))
+  ([opts source]
+   (let [ropts (.withEof (if (:edn opts) (edn-options opts) (reader-options opts)) Reader2/EOF)]
+     (reify
+       clojure.lang.IReduceInit
+       (reduce [_ f init]
+         (with-open [^java.io.Reader r (io/reader source)]
+           (let [rdr (Reader2. r Reader2/DEFAULT_CHUNK_SIZE ropts)]
+             (loop [acc init]
+               (let [form (.read rdr)]
+                 (if (identical? form Reader2/EOF)
+                   acc
+                   (let [acc (f acc form)]
+                     (if (reduced? acc)
+                       @acc
+                       (recur acc)))))))))
+
+       java.lang.Iterable
+       (iterator [_]
+         (let [^java.io.Reader r (io/reader source)
+               rdr (Reader2. r Reader2/DEFAULT_CHUNK_SIZE ropts)
+               ;; one form of lookahead; Reader2/EOF once exhausted (and r closed)
+               nxt (volatile! ::none)
+               fetch (fn []
+                       (when (identical? @nxt ::none)
+                         (let [form (try
+                                      (.read rdr)
+                                      (catch Throwable t
+                                        (.close r)
+                                        (throw t)))]
+                           (when (identical? form Reader2/EOF) (.close r))
+                           (vreset! nxt form))))]
+           (reify java.util.Iterator
+             (hasNext [_]
+               (fetch)
+               (not (identical? @nxt Reader2/EOF)))
+             (next [this]
+               (when-not (.hasNext this) (throw (java.util.NoSuchElementException.)))
+               (let [form @nxt]
+                 (vreset! nxt ::none)
+                 form)))))))))
@@ -0,0 +1,49 @@
+package lijeur;
+
+/**
+ * Type tags of the binary form encoding written by {@link BinaryWriter} and read by
+ * {@link BinaryReader}. It covers exactly the values {@link Reader2} produces, with no text
+ * to parse. Each value is a one-byte tag followed by its payload:
+ *
+ * <ul>
+ * <li>integers ({@code long}, {@code int}, char, counts, ids) are unsigned LEB128 varints, signed
+ *     ones zigzag-encoded first; doubles are 8 bytes, big-endian;
+ * <li>strings are a varint byte length and the UTF-8 bytes;
+ * <li>a symbol or keyword is written in full (namespace as length + 1, 0 for none, then name)
+ *     the first time and as a varint id afterwards, ids counting up from 0 per kind;
+ * <li>lists, vectors, maps and sets are a varint count (entries for maps) and the elements,
+ *     so the reader can presize them;
+ * <li>metadata is {@link #META}, the map, then the value it is attached to;
+ * <li>a record is {@link #RECORD}, its class name as a string, then its entries as a map's.
+ * </ul>
+ */
+public final class BinaryFormat {
+
+  private BinaryFormat() {}
+
+  public static final int NIL = 0;
+  public static final int TRUE = 1;
+  public static final int FALSE = 2;
+  public static final int LONG = 3;
+  public static final int DOUBLE = 4;
+  public static final int BIGINT = 5;        // byte length, two's-complement bytes
+  public static final int BIGDEC = 6;        // scale (zigzag), then the unscaled value as BIGINT
+  public static final int RATIO = 7;         // numerator, denominator, as BIGINT
+  public static final int CHAR = 8;
+  public static final int STRING = 9;
+  public static final int SYMBOL = 10;
+  public static final int SYMBOL_REF = 11;
+  public static final int KEYWORD = 12;
+  public static final int KEYWORD_REF = 13;
+  public static final int LIST = 14;
+  public static final int VECTOR = 15;
+  public static final int MAP = 16;
+  public static final int SET = 17;
+  public static final int META = 18;
+  public static final int TAGGED = 19;       // tag symbol, form (a clojure.lang.TaggedLiteral)
+  public static final int INST = 20;         // epoch millis (zigzag), a java.util.Date
+  public static final int UUID = 21;         // two longs, big-endian
+  public static final int REGEX = 22;        // pattern source as a string
+  public static final int INT = 23;          // zigzag, an Integer (the :line / :column metadata)
+  public static final int RECORD = 24;       // class name, entries: a #my.ns.Rec{...} literal
+}
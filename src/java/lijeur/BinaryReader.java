@@ -0,0 +1,256 @@
+package lijeur;
+
+import clojure.lang.BigInt;
+import clojure.lang.IObj;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IRecord;
+import clojure.lang.Keyword;
+import clojure.lang.LazilyPersistentVector;
+import clojure.lang.PersistentHashSet;
+import clojure.lang.PersistentList;
+import clojure.lang.RT;
+import clojure.lang.Ratio;
+import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Reads forms written by {@link BinaryWriter} (see {@link BinaryFormat}). Returns
+ * {@link Reader2#EOF} at the end of the input; input cut inside a value throws
+ * {@link EOFException}, as does a count larger than the rest of the input can hold, so corrupt
+ * input never sizes an array from an unchecked count. Counts no array can have, and ids not
+ * yet defined, throw {@link IOException}.
+ *
+ * <p>A stream is read through a buffer that is refilled and compacted like {@link Buffer}. An
+ * in-memory array is read in place: strings and names are decoded straight from it.
+ */
+public final class BinaryReader {
+
+  private final InputStream in;             // null when reading an array in place
+  private byte[] buf = new byte[8192];
+  private int pos;
+  private int end;
+
+  private final ArrayList<Symbol> symbols = new ArrayList<>();
+  private final ArrayList<Keyword> keywords = new ArrayList<>();
+
+  public BinaryReader(InputStream in) {
+    this.in = in;
+  }
+
+  /** Reads {@code bytes[off, off + len)} without copying it. */
+  public BinaryReader(byte[] bytes, int off, int len) {
+    this.in = null;
+    this.buf = bytes;
+    this.pos = off;
+    this.end = off + len;
+  }
+
+  /** The next form, or {@link Reader2#EOF} at the end of the input. */
+  public Object read() throws IOException {
+    if (pos == end && !fill(1)) return Reader2.EOF;
+    return readValue();
+  }
+
+  private Object readValue() throws IOException {
+    int t = readByte();
+    switch (t) {
+      case BinaryFormat.NIL: return null;
+      case BinaryFormat.TRUE: return Boolean.TRUE;
+      case BinaryFormat.FALSE: return Boolean.FALSE;
+      case BinaryFormat.LONG: return readSigned();
+      case BinaryFormat.INT: return (int) readSigned();
+      case BinaryFormat.DOUBLE: return Double.longBitsToDouble(readFixed());
+      case BinaryFormat.BIGINT: return BigInt.fromBigInteger(readBigInteger());
+      case BinaryFormat.BIGDEC: {
+        int scale = (int) readSigned();
+        return new BigDecimal(readBigInteger(), scale);
+      }
+      case BinaryFormat.RATIO: return new Ratio(readBigInteger(), readBigInteger());
+      case BinaryFormat.CHAR: return (char) readUnsigned();
+      case BinaryFormat.STRING: return readString();
+      case BinaryFormat.SYMBOL: {
+        String ns = readNamespace();
+        Symbol s = Symbol.intern(ns, readString());
+        symbols.add(s);
+        return s;
+      }
+      case BinaryFormat.SYMBOL_REF: return symbols.get(readId(symbols.size()));
+      case BinaryFormat.KEYWORD: {
+        String ns = readNamespace();
+        Keyword k = Keyword.intern(ns, readString());
+        keywords.add(k);
+        return k;
+      }
+      case BinaryFormat.KEYWORD_REF: return keywords.get(readId(keywords.size()));
+      case BinaryFormat.LIST: {
+        Object[] a = readElements(readUnsigned());
+        return a.length == 0 ? PersistentList.EMPTY : PersistentList.create(Arrays.asList(a));
+      }
+      case BinaryFormat.VECTOR: return LazilyPersistentVector.createOwning(readElements(readUnsigned()));
+      case BinaryFormat.MAP: return RT.map(readEntries());
+      case BinaryFormat.RECORD: {
+        RecordConstructor ctor = recordConstructor(readString());
+        return ctor.create(RT.map(readEntries()));
+      }
+      case BinaryFormat.SET: return PersistentHashSet.create(readElements(readUnsigned()));
+      case BinaryFormat.META: {
+        IPersistentMap meta = (IPersistentMap) readValue();
+        return ((IObj) readValue()).withMeta(meta);
+      }
+      case BinaryFormat.TAGGED: {
+        Symbol tag = (Symbol) readValue();
+        return TaggedLiteral.create(tag, readValue());
+      }
+      case BinaryFormat.INST: return new java.util.Date(readSigned());
+      case BinaryFormat.UUID: return new java.util.UUID(readFixed(), readFixed());
+      case BinaryFormat.REGEX: return java.util.regex.Pattern.compile(readString());
+      default: throw new IOException("Unknown binary form tag: " + t);
+    }
+  }
+
+  // A map's keys and values, alternating.
+  private Object[] readEntries() throws IOException {
+    long n = readUnsigned();
+    if (n < 0 || n > MAX_COUNT / 2) throw corrupt("count", n);
+    return readElements(2 * n);
+  }
+
+  // Classes of the records read so far, with their cached call sites; null until the first.
+  private HashMap<String, RecordConstructor> recordConstructors;
+
+  // Only record classes: the input does not get to call create on any class it names.
+  private RecordConstructor recordConstructor(String name) throws IOException {
+    if (recordConstructors == null) recordConstructors = new HashMap<>();
+    RecordConstructor ctor = recordConstructors.get(name);
+    if (ctor == null) {
+      Class<?> cls = RT.classForNameNonLoading(name);
+      if (!IRecord.class.isAssignableFrom(cls)) throw new IOException("Not a record class: " + name);
+      ctor = new RecordConstructor(cls);
+      recordConstructors.put(name, ctor);
+    }
+    return ctor;
+  }
+
+  // Every element takes at least a byte, so an array is presized only for a count the bytes
+  // at hand can hold. Past that, an in-memory input ends too soon, and a stream's elements are
+  // collected as they arrive, so memory grows with the input rather than the count.
+  private Object[] readElements(long n) throws IOException {
+    if (n < 0 || n > MAX_COUNT) throw corrupt("count", n);   // past 2^63 as unsigned
+    if (n <= end - pos) {
+      Object[] a = new Object[(int) n];
+      for (int i = 0; i < n; i++) a[i] = readValue();
+      return a;
+    }
+    if (in == null) throw truncated();
+    ArrayList<Object> a = new ArrayList<>();
+    for (long i = 0; i < n; i++) a.add(readValue());
+    return a.toArray();
+  }
+
+  // The largest count or length an array can be sized to.
+  private static final int MAX_COUNT = Integer.MAX_VALUE - 8;
+
+  // A byte length, which require then checks against an in-memory input's end; a stream's
+  // buffer only grows as its bytes arrive (see fill).
+  private int readLength() throws IOException {
+    long n = readUnsigned();
+    if (n < 0 || n > MAX_COUNT) throw corrupt("length", n);
+    return (int) n;
+  }
+
+  private int readId(int count) throws IOException {
+    long id = readUnsigned();
+    if (id < 0 || id >= count) throw corrupt("id", id);
+    return (int) id;
+  }
+
+  private static IOException corrupt(String what, long n) {
+    return new IOException("Corrupt binary form: " + what + " " + Long.toUnsignedString(n) + " is out of range");
+  }
+
+  private String readNamespace() throws IOException {
+    int n = readLength();
+    return n == 0 ? null : readUtf8(n - 1);
+  }
+
+  private String readString() throws IOException {
+    return readUtf8(readLength());
+  }
+
+  private String readUtf8(int n) throws IOException {
+    require(n);
+    String s = new String(buf, pos, n, StandardCharsets.UTF_8);
+    pos += n;
+    return s;
+  }
+
+  private BigInteger readBigInteger() throws IOException {
+    int n = readLength();
+    require(n);
+    BigInteger v = new BigInteger(buf, pos, n);
+    pos += n;
+    return v;
+  }
+
+  private int readByte() throws IOException {
+    if (pos == end) require(1);
+    return buf[pos++] & 0xFF;
+  }
+
+  private long readSigned() throws IOException {
+    long v = readUnsigned();
+    return (v >>> 1) ^ -(v & 1);
+  }
+
+  private long readUnsigned() throws IOException {
+    long v = 0;
+    for (int shift = 0; ; shift += 7) {
+      int b = readByte();
+      v |= (long) (b & 0x7F) << shift;
+      if (b < 0x80) return v;
+    }
+  }
+
+  private long readFixed() throws IOException {
+    require(8);
+    long v = 0;
+    for (int i = 0; i < 8; i++) v = (v << 8) | (buf[pos++] & 0xFF);
+    return v;
+  }
+
+  private void require(int n) throws IOException {
+    if (end - pos < n && !fill(n)) throw truncated();
+  }
+
+  private static EOFException truncated() {
+    return new EOFException("Binary form stream ends inside a value");
+  }
+
+  // Makes at least n bytes available at buf[pos..); false if the stream ends first. The buffer
+  // grows only as bytes arrive, so a corrupt length cannot make it allocate up front.
+  private boolean fill(int n) throws IOException {
+    if (in == null) return end - pos >= n;
+    if (pos > 0) {
+      System.arraycopy(buf, pos, buf, 0, end - pos);
+      end -= pos;
+      pos = 0;
+    }
+    while (end < n) {
+      if (end == buf.length) buf = Arrays.copyOf(buf, (int) Math.min(n, 2L * buf.length));
+      int r = in.read(buf, end, buf.length - end);
+      if (r < 0) return false;
+      end += r;
+    }
+    return true;
+  }
+}
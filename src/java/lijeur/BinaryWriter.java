@@ -0,0 +1,265 @@
+package lijeur;
+
+import clojure.lang.BigInt;
+import clojure.lang.IMeta;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.IPersistentVector;
+import clojure.lang.IRecord;
+import clojure.lang.ISeq;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Ratio;
+import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Writes forms in the binary encoding described in {@link BinaryFormat}, buffered. Symbols and
+ * keywords are written in full once per writer and as ids afterwards. Strings are encoded to
+ * UTF-8 straight into the output buffer, with no intermediate byte array. Throws
+ * {@link IllegalArgumentException} for a value outside what {@link Reader2} produces.
+ *
+ * <p>Call {@link #flush()} when done; the stream is not closed.
+ */
+public final class BinaryWriter {
+
+  private final OutputStream out;
+  private final byte[] buf = new byte[8192];
+  private int pos;
+
+  private final Map<Symbol, Integer> symbols = new HashMap<>();          // by value: meta is written apart
+  private final Map<Keyword, Integer> keywords = new IdentityHashMap<>(); // keywords are interned
+
+  public BinaryWriter(OutputStream out) {
+    this.out = out;
+  }
+
+  public void write(Object o) throws IOException {
+    if (o instanceof IMeta) {
+      IPersistentMap meta = ((IMeta) o).meta();
+      if (meta != null) {
+        tag(BinaryFormat.META);
+        write(meta);
+      }
+    }
+    if (o == null) tag(BinaryFormat.NIL);
+    else if (o instanceof Keyword) writeKeyword((Keyword) o);
+    else if (o instanceof Symbol) writeSymbol((Symbol) o);
+    else if (o instanceof String) { tag(BinaryFormat.STRING); writeString((String) o); }
+    else if (o instanceof Long) { tag(BinaryFormat.LONG); writeSigned((Long) o); }
+    else if (o instanceof Integer) { tag(BinaryFormat.INT); writeSigned((Integer) o); }
+    else if (o instanceof Boolean) tag((Boolean) o ? BinaryFormat.TRUE : BinaryFormat.FALSE);
+    else if (o instanceof IPersistentVector) {
+      IPersistentVector v = (IPersistentVector) o;
+      int n = v.count();
+      tag(BinaryFormat.VECTOR);
+      writeUnsigned(n);
+      for (int i = 0; i < n; i++) write(v.nth(i));
+    } else if (o instanceof IRecord) {      // a map too: tagged first, so its class is kept
+      tag(BinaryFormat.RECORD);
+      writeString(o.getClass().getName());
+      writeEntries((IPersistentMap) o);
+    } else if (o instanceof IPersistentMap) {
+      tag(BinaryFormat.MAP);
+      writeEntries((IPersistentMap) o);
+    } else if (o instanceof ISeq || o instanceof clojure.lang.IPersistentList) {
+      tag(BinaryFormat.LIST);
+      writeUnsigned(RT.count(o));
+      for (ISeq s = RT.seq(o); s != null; s = s.next()) write(s.first());
+    } else if (o instanceof IPersistentSet) {
+      tag(BinaryFormat.SET);
+      writeUnsigned(((IPersistentSet) o).count());
+      for (ISeq s = RT.seq(o); s != null; s = s.next()) write(s.first());
+    } else if (o instanceof Double) {
+      tag(BinaryFormat.DOUBLE);
+      writeFixed(Double.doubleToRawLongBits((Double) o));
+    } else if (o instanceof Character) {
+      tag(BinaryFormat.CHAR);
+      writeUnsigned((Character) o);
+    } else if (o instanceof BigInt) {
+      tag(BinaryFormat.BIGINT);
+      writeBigInteger(((BigInt) o).toBigInteger());
+    } else if (o instanceof BigDecimal) {
+      BigDecimal d = (BigDecimal) o;
+      tag(BinaryFormat.BIGDEC);
+      writeSigned(d.scale());
+      writeBigInteger(d.unscaledValue());
+    } else if (o instanceof Ratio) {
+      tag(BinaryFormat.RATIO);
+      writeBigInteger(((Ratio) o).numerator);
+      writeBigInteger(((Ratio) o).denominator);
+    } else if (o instanceof TaggedLiteral) {
+      tag(BinaryFormat.TAGGED);
+      writeSymbol(((TaggedLiteral) o).tag);
+      write(((TaggedLiteral) o).form);
+    } else if (o instanceof java.util.Date) {
+      tag(BinaryFormat.INST);
+      writeSigned(((java.util.Date) o).getTime());
+    } else if (o instanceof java.util.UUID) {
+      tag(BinaryFormat.UUID);
+      writeFixed(((java.util.UUID) o).getMostSignificantBits());
+      writeFixed(((java.util.UUID) o).getLeastSignificantBits());
+    } else if (o instanceof java.util.regex.Pattern) {
+      tag(BinaryFormat.REGEX);
+      writeString(((java.util.regex.Pattern) o).pattern());
+    } else {
+      throw new IllegalArgumentException("Cannot encode " + o.getClass().getName());
+    }
+  }
+
+  private void writeEntries(IPersistentMap m) throws IOException {
+    writeUnsigned(m.count());
+    for (ISeq s = RT.seq(m); s != null; s = s.next()) {
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) s.first();
+      write(e.getKey());
+      write(e.getValue());
+    }
+  }
+
+  public void flush() throws IOException {
+    out.write(buf, 0, pos);
+    pos = 0;
+    out.flush();
+  }
+
+  private void writeSymbol(Symbol s) throws IOException {
+    Integer id = symbols.get(s);
+    if (id != null) {
+      tag(BinaryFormat.SYMBOL_REF);
+      writeUnsigned(id);
+      return;
+    }
+    symbols.put(s, symbols.size());
+    tag(BinaryFormat.SYMBOL);
+    writeName(s.getNamespace(), s.getName());
+  }
+
+  private void writeKeyword(Keyword k) throws IOException {
+    Integer id = keywords.get(k);
+    if (id != null) {
+      tag(BinaryFormat.KEYWORD_REF);
+      writeUnsigned(id);
+      return;
+    }
+    keywords.put(k, keywords.size());
+    tag(BinaryFormat.KEYWORD);
+    writeName(k.getNamespace(), k.getName());
+  }
+
+  private void writeName(String ns, String name) throws IOException {
+    if (ns == null) {
+      writeUnsigned(0);
+    } else {
+      byte[] b = ns.getBytes(StandardCharsets.UTF_8);
+      writeUnsigned(b.length + 1L);
+      writeBytes(b);
+    }
+    writeString(name);
+  }
+
+  private void writeString(String s) throws IOException {
+    int n = s.length();
+    int len = utf8Length(s);
+    writeUnsigned(len);
+    if (len > buf.length - pos) {
+      drain();
+      if (len > buf.length) {
+        out.write(s.getBytes(StandardCharsets.UTF_8));
+        return;
+      }
+    }
+    byte[] b = buf;
+    int p = pos;
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) {
+        b[p++] = (byte) c;
+      } else if (c < 0x800) {
+        b[p++] = (byte) (0xC0 | (c >> 6));
+        b[p++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+        int cp = Character.toCodePoint(c, s.charAt(++i));
+        b[p++] = (byte) (0xF0 | (cp >> 18));
+        b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        b[p++] = '?';                       // unpaired, as String.getBytes replaces it
+      } else {
+        b[p++] = (byte) (0xE0 | (c >> 12));
+        b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    pos = p;
+  }
+
+  // Encoded length, matching the encoding loop in writeString.
+  private static int utf8Length(String s) {
+    int n = s.length();
+    int len = n;
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      if (c < 0x80) continue;
+      if (c < 0x800) len += 1;
+      else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) { len += 2; i++; }
+      else if (!Character.isSurrogate(c)) len += 2;
+    }
+    return len;
+  }
+
+  private void writeBigInteger(BigInteger v) throws IOException {
+    byte[] b = v.toByteArray();
+    writeUnsigned(b.length);
+    writeBytes(b);
+  }
+
+  private void tag(int t) throws IOException {
+    if (pos == buf.length) drain();
+    buf[pos++] = (byte) t;
+  }
+
+  private void writeSigned(long v) throws IOException {
+    writeUnsigned((v << 1) ^ (v >> 63));
+  }
+
+  private void writeUnsigned(long v) throws IOException {
+    if (buf.length - pos < 10) drain();
+    while ((v & ~0x7FL) != 0) {
+      buf[pos++] = (byte) ((v & 0x7F) | 0x80);
+      v >>>= 7;
+    }
+    buf[pos++] = (byte) v;
+  }
+
+  private void writeFixed(long v) throws IOException {
+    if (buf.length - pos < 8) drain();
+    for (int shift = 56; shift >= 0; shift -= 8) buf[pos++] = (byte) (v >>> shift);
+  }
+
+  private void writeBytes(byte[] b) throws IOException {
+    if (b.length > buf.length - pos) {
+      drain();
+      if (b.length > buf.length) {
+        out.write(b);
+        return;
+      }
+    }
+    System.arraycopy(b, 0, buf, pos, b.length);
+    pos += b.length;
+  }
+
+  private void drain() throws IOException {
+    out.write(buf, 0, pos);
+    pos = 0;
+  }
+}
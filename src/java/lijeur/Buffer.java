@@ -5,21 +5,31 @@ import java.io.Reader;
 import java.util.Arrays;
 
 public class Buffer {
-  private final Reader reader;
+  // Written at buffer[posEnd] so scanners can loop over the backing array with a single
+  // compare per char; a real '\0' in the input is told apart by checking p == posEnd.
+  static final char SENTINEL = '\0';
+
+  private Reader reader;
   int bufferSize;
   final int readChunkSize;
   boolean EOF = false;
+  // Absolute input offset of buffer[0]; grows by the amount dropped at each compaction
+  long base = 0;
+  // Line tracking, counted in bulk up to buffer index lineColumnPos (-1 when off). Columns
+  // are not counted per char: they are the distance from the current line's start.
   private int lineColumnPos;
   private int line;
-  private int column;
-  private boolean skipLF = false;
+  // Absolute offset where the current line starts
+  private long lineStart = 0;
+  // Absolute offset of the last '\r', so the '\n' of a "\r\n" is not counted again
+  private long lastCR = -2;
 
   char[] buffer;
 
   // Current reading position in the buffer
-  private int pos = 0;
+  int pos = 0;
   // Max reading position in the buffer
-  private int posEnd = 0;
+  int posEnd = 0;
   // Position of the start of current token in the buffer
   private int tokenStart = 0;
 
@@ -27,15 +37,14 @@ public class Buffer {
     this.reader = reader;
     this.readChunkSize = readChunkSize;
     this.bufferSize = 2 * readChunkSize;
-    buffer = new char[bufferSize];
+    // One extra slot so the sentinel always fits after the last buffered char
+    buffer = new char[bufferSize + 1];
     if(countLines) {
       this.lineColumnPos = 0;
       this.line = 0;
-      this.column = 0;
     } else {
       this.lineColumnPos = -1;
       this.line = -1;
-      this.column = -1;
     }
   }
 
@@ -43,37 +52,95 @@ public class Buffer {
     this(reader, readChunkSize, false);
   }
 
+  // Turns line counting on for an input that has not been compacted yet. Line breaks are then
+  // counted in bulk as consumed chars are dropped, so any later position can be located.
+  void trackLines() {
+    if(line > -1) {
+      return;
+    }
+    if(base != 0) {
+      throw new IllegalStateException("Line tracking must start before input is dropped");
+    }
+    lineColumnPos = 0;
+    line = 0;
+  }
+
+  // Starts over on a new input, reusing the array (shrunk back if a long token grew it).
+  void reset(Reader reader) {
+    this.reader = reader;
+    if(bufferSize > 2 * readChunkSize) {
+      buffer = new char[2 * readChunkSize + 1];
+      bufferSize = 2 * readChunkSize;
+    }
+    EOF = false;
+    base = 0;
+    pos = 0;
+    posEnd = 0;
+    tokenStart = 0;
+    buffer[0] = SENTINEL;
+    if(line > -1) { // counting lines
+      lineColumnPos = 0;
+      line = 0;
+    }
+    lineStart = 0;
+    lastCR = -2;
+  }
+
   public int read() throws IOException {
-    if(EOF) {
+    if(pos == posEnd && !refill()) {
       return -1;
     }
-    if (posEnd == 0) {
-      posEnd = reader.read(buffer, 0, readChunkSize);
-      if(posEnd <= 0) {
-        EOF = true;
-        return -1;
-      }
+    return buffer[pos++];
+  }
+
+  // Returns the next char without consuming it, or -1 at end of input.
+  public int peek() throws IOException {
+    if(pos == posEnd && !refill()) {
+      return -1;
     }
-    if(pos == posEnd && (bufferSize - pos) >= readChunkSize) {
-      int readLength = reader.read(buffer, pos, readChunkSize);
-      if(readLength <= 0) {
-        EOF = true;
-        return -1;
-      } else {
-        posEnd = posEnd + readLength;
-      }
-    } else if (pos == posEnd && (bufferSize - pos) < readChunkSize) {
-      buffer = Arrays.copyOf(buffer, bufferSize + readChunkSize);
-      bufferSize = bufferSize + readChunkSize;
-      int readLength = reader.read(buffer, pos, readChunkSize);
-      if(readLength <= 0) {
-        EOF = true;
-        return -1;
-      } else {
-        posEnd = posEnd + readLength;
-      }
+    return buffer[pos];
+  }
+
+  // Reads one more chunk after posEnd. Returns false at end of input. When the buffer is
+  // full, the current token is first shifted to the front (so tokenStart, pos and posEnd
+  // may all move) and the buffer only grows if that did not free a chunk.
+  boolean refill() throws IOException {
+    if(EOF) {
+      return false;
     }
-    return buffer[pos++];
+    if(bufferSize - posEnd < readChunkSize && tokenStart > 0) {
+      compact(tokenStart);
+    }
+    if(bufferSize - posEnd < readChunkSize) {
+      // Doubles, so a token many chunks long is copied O(length) times in total, not O(length^2)
+      bufferSize = bufferSize + Math.max(bufferSize, readChunkSize);
+      buffer = Arrays.copyOf(buffer, bufferSize + 1);
+    }
+    int readLength = reader.read(buffer, posEnd, readChunkSize);
+    if(readLength <= 0) {
+      EOF = true;
+      buffer[posEnd] = SENTINEL;
+      return false;
+    }
+    posEnd = posEnd + readLength;
+    buffer[posEnd] = SENTINEL;
+    return true;
+  }
+
+  // Drops buffer[0, from) and shifts the rest to the front.
+  private void compact(int from) {
+    if(lineColumnPos > -1 && lineColumnPos < from) {
+      countLines(from);
+    }
+    System.arraycopy(buffer, from, buffer, 0, posEnd - from);
+    posEnd = posEnd - from;
+    pos = pos - from;
+    tokenStart = tokenStart - from;
+    if(lineColumnPos > -1) {
+      lineColumnPos = lineColumnPos - from;
+    }
+    base = base + from;
+    buffer[posEnd] = SENTINEL;
   }
 
   public void unread() {
@@ -109,12 +176,10 @@ public class Buffer {
 
   public void startNewToken() {
     if(pos > readChunkSize) {
-      updateLineColumn();
-      System.arraycopy(buffer, pos, buffer, 0, posEnd - pos);
-      posEnd = posEnd - pos;
-      pos = 0;
+      tokenStart = pos;
+      compact(pos);
       if(bufferSize > 2 * readChunkSize && posEnd < readChunkSize) {
-        buffer = Arrays.copyOf(buffer, 2 * readChunkSize);
+        buffer = Arrays.copyOf(buffer, 2 * readChunkSize + 1);
         bufferSize = 2 * readChunkSize;
       }
     }
@@ -122,28 +187,36 @@ public class Buffer {
   }
 
   public void updateLineColumn() {
-    if(lineColumnPos > -1) {
-      for (int i = lineColumnPos; i < pos; ++i) {
-        int ch = buffer[i];
-        if (skipLF && ch == '\n') {
-          skipLF = false;
-          continue;
-        }
-        if (ch == '\r') {
-          skipLF = true;
-          line = line + 1;
-          column = 0;
-        } else if (ch == '\n') {
-          skipLF = false;
-          line = line + 1;
-          column = 0;
-        } else {
-          skipLF = false;
-          column = column + 1;
+    if(lineColumnPos > -1 && lineColumnPos < pos) {
+      countLines(pos);
+    }
+  }
+
+  // Counts line breaks in buffer[lineColumnPos, to). Only '\n' and '\r' are looked at, so the
+  // loop is a single compare for every other char; a "\r\n" pair counts once.
+  private void countLines(int to) {
+    char[] a = buffer;
+    int n = line;
+    long start = lineStart;
+    for(int i = lineColumnPos; i < to; i++) {
+      char ch = a[i];
+      if(ch > '\r') {
+        continue;
+      }
+      if(ch == '\n') {
+        if(base + i - 1 != lastCR) {
+          n = n + 1;
         }
+        start = base + i + 1;
+      } else if(ch == '\r') {
+        n = n + 1;
+        start = base + i + 1;
+        lastCR = base + i;
       }
-      lineColumnPos = pos;
     }
+    line = n;
+    lineStart = start;
+    lineColumnPos = to;
   }
 
   public int getLine() {
@@ -152,7 +225,23 @@ public class Buffer {
   }
 
   public int getColumn() {
+    if(lineColumnPos < 0) {
+      return -1;
+    }
     updateLineColumn();
-    return column;
+    return (int) (base + pos - lineStart);
+  }
+
+  // 0-based line of buffer index p. Queries must not go backwards past earlier ones.
+  int lineAt(int p) {
+    if(lineColumnPos < p) {
+      countLines(p);
+    }
+    return line;
+  }
+
+  // 0-based column of buffer index p, after lineAt(p).
+  int columnAt(int p) {
+    return (int) (base + p - lineStart);
   }
 }
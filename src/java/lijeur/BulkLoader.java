@@ -0,0 +1,187 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads many files concurrently, each into the list of its top-level forms.
+ *
+ * <p>At most {@code maxInFlight} files are open and being read at any time, which bounds the
+ * reader buffers and file handles in use. Readers are pooled: a task takes a
+ * {@link Reader2} from the pool (creating one only while fewer than {@code maxInFlight}
+ * exist) and returns it, so buffers are reused across files. All readers share one token
+ * cache, so a keyword or symbol interned while reading one file is a cache hit in the others.
+ *
+ * <p>Results come back in the order of the paths given, whatever order the files finish in;
+ * a file that fails to open or read has its exception in its {@link Result} instead of forms,
+ * and does not stop the others.
+ *
+ * <p>Without an executor, each {@link #load} call runs its files on a virtual thread per file
+ * when the runtime has virtual threads (Java 21+), and on a pool of {@code maxInFlight}
+ * platform threads otherwise.
+ */
+public final class BulkLoader {
+
+  /** The forms of one file, or the exception that stopped reading it. */
+  public static final class Result {
+    private final Path path;
+    private final List<Object> forms;
+    private final Throwable error;
+
+    Result(Path path, List<Object> forms, Throwable error) {
+      this.path = path;
+      this.forms = forms;
+      this.error = error;
+    }
+
+    public Path path() {
+      return path;
+    }
+
+    /** The file's top-level forms, or null if reading it failed. */
+    public List<Object> forms() {
+      return forms;
+    }
+
+    /**
+     * The exception that stopped reading the file, or null. A {@link StackOverflowError} from
+     * input nested too deep is one too.
+     */
+    public Throwable error() {
+      return error;
+    }
+
+    @Override
+    public String toString() {
+      return path + (error == null ? " " + forms : " failed: " + error);
+    }
+  }
+
+  private static final int SHARED_TOKEN_CACHE_SIZE = 8192;
+
+  private final ReaderOptions opts;
+  private final int maxInFlight;
+  private final Executor executor;          // null: one per load call, see defaultExecutor
+  private final TokenCache tokens = new TokenCache(SHARED_TOKEN_CACHE_SIZE);
+  final ConcurrentLinkedQueue<Reader2> readers = new ConcurrentLinkedQueue<>();   // idle, for reuse
+
+  public BulkLoader(ReaderOptions opts, int maxInFlight, Executor executor) {
+    if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive: " + maxInFlight);
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+    this.maxInFlight = maxInFlight;
+    this.executor = executor;
+  }
+
+  public BulkLoader(ReaderOptions opts, int maxInFlight) {
+    this(opts, maxInFlight, null);
+  }
+
+  public BulkLoader() {
+    this(ReaderOptions.fromBindings(), 4 * Runtime.getRuntime().availableProcessors());
+  }
+
+  /** Reads {@code paths}, returning one result per path, in the same order. */
+  public List<Result> load(List<Path> paths) throws InterruptedException {
+    int n = paths.size();
+    Result[] results = new Result[n];
+    Semaphore inFlight = new Semaphore(maxInFlight);
+    ExecutorService owned = executor == null ? defaultExecutor() : null;
+    Executor exec = owned != null ? owned : executor;
+    try {
+      for (int i = 0; i < n; i++) {
+        int idx = i;
+        Path path = paths.get(i);
+        inFlight.acquire();
+        try {
+          exec.execute(() -> {
+            try {
+              results[idx] = readFile(path);
+            } finally {
+              inFlight.release();
+            }
+          });
+        } catch (RejectedExecutionException e) {
+          inFlight.release();
+          throw e;
+        }
+      }
+      inFlight.acquire(maxInFlight);        // every task has released its permit
+      inFlight.release(maxInFlight);
+    } finally {
+      if (owned != null) owned.shutdown();
+    }
+    List<Result> out = new ArrayList<>(n);
+    Collections.addAll(out, results);
+    return out;
+  }
+
+  /**
+   * Reads the regular files under {@code dir} whose path relative to {@code dir} matches
+   * {@code glob} (as in {@link java.nio.file.FileSystem#getPathMatcher}, e.g.
+   * {@code "**.edn"}), in sorted path order.
+   */
+  public List<Result> load(Path dir, String glob) throws IOException, InterruptedException {
+    PathMatcher m = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+    List<Path> paths;
+    try (Stream<Path> s = Files.walk(dir)) {
+      paths = s.filter(p -> Files.isRegularFile(p) && m.matches(dir.relativize(p)))
+          .sorted()
+          .collect(Collectors.toList());
+    }
+    return load(paths);
+  }
+
+  private Result readFile(Path path) {
+    Reader2 r = readers.poll();
+    try (InputStreamReader in = new InputStreamReader(Files.newInputStream(path), StandardCharsets.UTF_8)) {
+      if (r == null) {
+        r = new Reader2(in, Reader2.DEFAULT_CHUNK_SIZE, opts);
+        r.shareTokens(tokens);
+      } else {
+        r.reset(in);
+      }
+      List<Object> forms = new ArrayList<>();
+      for (Object o; (o = r.read()) != Reader2.EOF; ) forms.add(o);
+      return new Result(path, forms, null);
+    } catch (Throwable t) {
+      // Too deep a file fails alone; the errors that leave the JVM unusable still propagate.
+      if (t instanceof VirtualMachineError && !(t instanceof StackOverflowError)) throw (VirtualMachineError) t;
+      return new Result(path, null, t);
+    } finally {
+      if (r != null) {
+        r.reset(null);                      // drop the file's reader and buffered text
+        readers.offer(r);
+      }
+    }
+  }
+
+  // A virtual thread per task where available (Java 21+), else a pool of maxInFlight threads.
+  private ExecutorService defaultExecutor() {
+    try {
+      return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    } catch (ReflectiveOperationException e) {
+      return Executors.newFixedThreadPool(maxInFlight, task -> {
+        Thread t = new Thread(task, "lijeur-bulk-loader");
+        t.setDaemon(true);
+        return t;
+      });
+    }
+  }
+}
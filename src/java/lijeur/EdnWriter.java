@@ -0,0 +1,345 @@
+package lijeur;
+
+import clojure.lang.BigInt;
+import clojure.lang.IMeta;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.IPersistentVector;
+import clojure.lang.IRecord;
+import clojure.lang.ISeq;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Ratio;
+import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Writes forms as text {@link Reader2} reads back to equal forms, without going through
+ * {@code print-method}: values are dispatched on their type, and no printer Var is read.
+ *
+ * <p>Text is appended to a reusable {@code char[]}; {@link #writeTo(OutputStream)} encodes it to
+ * UTF-8 directly through a reusable {@code byte[]}, and {@link #reset()} empties both for the next
+ * batch. The text of recently written keywords and symbols is kept, so a repeated name is a
+ * single array copy.
+ *
+ * <p>Strings use only the escapes {@code readStringEscape} accepts ({@code \"}, {@code \\},
+ * {@code \n}, {@code \t}, {@code \r}, {@code \b}, {@code \f} and {@code \}{@code uXXXX} for other
+ * control chars and unpaired surrogates); characters use the names and {@code \}{@code uXXXX}
+ * forms {@code interpretCharacter} accepts. With {@code meta}, metadata is written as
+ * {@code ^{...}} before the value. Values outside the reader's data model throw
+ * {@link IllegalArgumentException}. Not thread-safe.
+ */
+public final class EdnWriter {
+
+  private static final DateTimeFormatter INST =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'-00:00'").withZone(ZoneOffset.UTC);
+  private static final char[] HEX = "0123456789abcdef".toCharArray();
+  private static final int NAME_CACHE_SIZE = 1024;
+
+  private final boolean meta;
+  private char[] buf = new char[1024];
+  private int len;
+  private byte[] bytes;                     // UTF-8 scratch for writeTo(OutputStream)
+
+  // Direct-mapped cache of keyword and symbol text, ':' included for keywords.
+  private final Object[] names = new Object[NAME_CACHE_SIZE];
+  private final char[][] nameText = new char[NAME_CACHE_SIZE][];
+
+  public EdnWriter(boolean meta) {
+    this.meta = meta;
+  }
+
+  public EdnWriter() {
+    this(false);
+  }
+
+  /** The text of {@code o}, without metadata. */
+  public static String toEdn(Object o) {
+    EdnWriter w = new EdnWriter();
+    w.write(o);
+    return w.toString();
+  }
+
+  /** Appends {@code o}. Separate top-level forms with {@link #append(char)}. */
+  public EdnWriter write(Object o) {
+    if (meta && o instanceof IMeta) {
+      IPersistentMap m = ((IMeta) o).meta();
+      if (m != null && m.count() > 0) {
+        append('^');
+        writeMap(m);
+        append(' ');
+      }
+    }
+    if (o == null) append("nil");
+    else if (o instanceof Keyword || o instanceof Symbol) writeName(o);
+    else if (o instanceof String) writeString((String) o);
+    else if (o instanceof Long || o instanceof Integer || o instanceof Short || o instanceof Byte)
+      append(Long.toString(((Number) o).longValue()));
+    else if (o instanceof Boolean) append((Boolean) o ? "true" : "false");
+    else if (o instanceof IPersistentVector) {
+      IPersistentVector v = (IPersistentVector) o;
+      append('[');
+      for (int i = 0, n = v.count(); i < n; i++) {
+        if (i > 0) append(' ');
+        write(v.nth(i));
+      }
+      append(']');
+    } else if (o instanceof IRecord) {      // a map too: #my.ns.Rec{...} keeps its class
+      append('#');
+      append(o.getClass().getName());
+      writeMap((IPersistentMap) o);
+    } else if (o instanceof IPersistentMap) writeMap((IPersistentMap) o);
+    else if (o instanceof ISeq || o instanceof clojure.lang.IPersistentList) writeSeq('(', RT.seq(o), ')');
+    else if (o instanceof IPersistentSet) {
+      append('#');
+      writeSeq('{', RT.seq(o), '}');
+    } else if (o instanceof Double || o instanceof Float) writeDouble(((Number) o).doubleValue());
+    else if (o instanceof Character) writeChar((Character) o);
+    else if (o instanceof BigInt) {
+      append(o.toString());
+      append('N');
+    } else if (o instanceof BigInteger) {
+      append(o.toString());
+      append('N');
+    } else if (o instanceof BigDecimal) {
+      append(o.toString());
+      append('M');
+    } else if (o instanceof Ratio) {
+      append(((Ratio) o).numerator.toString());
+      append('/');
+      append(((Ratio) o).denominator.toString());
+    } else if (o instanceof TaggedLiteral) {
+      append('#');
+      writeName(((TaggedLiteral) o).tag);
+      append(' ');
+      write(((TaggedLiteral) o).form);
+    } else if (o instanceof java.util.Date) {
+      append("#inst \"");
+      append(INST.format(Instant.ofEpochMilli(((java.util.Date) o).getTime())));
+      append('"');
+    } else if (o instanceof java.util.UUID) {
+      append("#uuid \"");
+      append(o.toString());
+      append('"');
+    } else if (o instanceof java.util.regex.Pattern) writeRegex(((java.util.regex.Pattern) o).pattern());
+    else throw new IllegalArgumentException("Cannot write " + o.getClass().getName() + " as EDN");
+    return this;
+  }
+
+  public EdnWriter append(char c) {
+    if (len == buf.length) grow(1);
+    buf[len++] = c;
+    return this;
+  }
+
+  public int length() {
+    return len;
+  }
+
+  /** The backing array; the text is its first {@link #length()} chars. */
+  public char[] chars() {
+    return buf;
+  }
+
+  /** Empties the writer, keeping its buffers and name cache. */
+  public void reset() {
+    len = 0;
+  }
+
+  @Override
+  public String toString() {
+    return new String(buf, 0, len);
+  }
+
+  public void writeTo(Writer out) throws IOException {
+    out.write(buf, 0, len);
+  }
+
+  /** Writes the text as UTF-8, encoding it straight into a reused byte array. */
+  public void writeTo(OutputStream out) throws IOException {
+    byte[] b = bytes;
+    if (b == null) b = bytes = new byte[8192];
+    int p = 0;
+    char[] a = buf;
+    for (int i = 0, n = len; i < n; i++) {
+      if (p > b.length - 4) {
+        out.write(b, 0, p);
+        p = 0;
+      }
+      char c = a[i];
+      if (c < 0x80) {
+        b[p++] = (byte) c;
+      } else if (c < 0x800) {
+        b[p++] = (byte) (0xC0 | (c >> 6));
+        b[p++] = (byte) (0x80 | (c & 0x3F));
+      } else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(a[i + 1])) {
+        int cp = Character.toCodePoint(c, a[++i]);
+        b[p++] = (byte) (0xF0 | (cp >> 18));
+        b[p++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+        b[p++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (cp & 0x3F));
+      } else if (Character.isSurrogate(c)) {
+        b[p++] = '?';                       // unpaired: write() never emits one
+      } else {
+        b[p++] = (byte) (0xE0 | (c >> 12));
+        b[p++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+        b[p++] = (byte) (0x80 | (c & 0x3F));
+      }
+    }
+    out.write(b, 0, p);
+  }
+
+  private void writeMap(IPersistentMap m) {
+    append('{');
+    boolean first = true;
+    for (ISeq s = m.seq(); s != null; s = s.next()) {
+      Map.Entry<?, ?> e = (Map.Entry<?, ?>) s.first();
+      if (!first) append(' ');
+      first = false;
+      write(e.getKey());
+      append(' ');
+      write(e.getValue());
+    }
+    append('}');
+  }
+
+  private void writeSeq(char open, ISeq s, char close) {
+    append(open);
+    for (boolean first = true; s != null; s = s.next(), first = false) {
+      if (!first) append(' ');
+      write(s.first());
+    }
+    append(close);
+  }
+
+  private void writeName(Object name) {
+    int idx = name.hashCode() & (NAME_CACHE_SIZE - 1);
+    char[] text;
+    if (name.equals(names[idx])) {
+      text = nameText[idx];
+    } else {
+      text = name.toString().toCharArray();   // ":ns/name" for a keyword
+      names[idx] = name;
+      nameText[idx] = text;
+    }
+    if (len + text.length > buf.length) grow(text.length);
+    System.arraycopy(text, 0, buf, len, text.length);
+    len += text.length;
+  }
+
+  private void writeString(String s) {
+    int n = s.length();
+    if (len + n + 2 > buf.length) grow(n + 2);
+    char[] a = buf;
+    int p = len;
+    a[p++] = '"';
+    for (int i = 0; i < n; i++) {
+      char c = s.charAt(i);
+      String esc = null;
+      switch (c) {
+        case '"': esc = "\\\""; break;
+        case '\\': esc = "\\\\"; break;
+        case '\n': esc = "\\n"; break;
+        case '\t': esc = "\\t"; break;
+        case '\r': esc = "\\r"; break;
+        case '\b': esc = "\\b"; break;
+        case '\f': esc = "\\f"; break;
+        default:
+          if (c >= 0x20 && !Character.isSurrogate(c)) {
+            if (p == a.length) { len = p; grow(n - i + 1); a = buf; }
+            a[p++] = c;
+            continue;
+          }
+          if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(s.charAt(i + 1))) {
+            if (p + 2 > a.length) { len = p; grow(n - i + 1); a = buf; }
+            a[p++] = c;
+            a[p++] = s.charAt(++i);
+            continue;
+          }
+          break;                            // control char or unpaired surrogate: \\uXXXX
+      }
+      if (p + 6 > a.length) { len = p; grow(n - i + 6); a = buf; }
+      if (esc != null) {
+        for (int j = 0; j < esc.length(); j++) a[p++] = esc.charAt(j);
+      } else {
+        p = unicodeEscape(a, p, c);
+      }
+    }
+    len = p;
+    append('"');
+  }
+
+  private void writeChar(char c) {
+    append('\\');
+    switch (c) {
+      case '\n': append("newline"); return;
+      case ' ': append("space"); return;
+      case '\t': append("tab"); return;
+      case '\b': append("backspace"); return;
+      case '\f': append("formfeed"); return;
+      case '\r': append("return"); return;
+      default:
+        break;
+    }
+    if (Character.isSurrogate(c))           // interpretCharacter rejects \\uD800-\\uDFFF
+      throw new IllegalArgumentException("Cannot write unpaired surrogate char \\u" + Integer.toHexString(c));
+    if (Character.isISOControl(c) || Character.isWhitespace(c) || Character.isSpaceChar(c)) {
+      if (len + 5 > buf.length) grow(5);
+      len = unicodeEscape(buf, len - 1, c);   // over the '\\' just written
+      return;
+    }
+    append(c);
+  }
+
+  private void writeDouble(double d) {
+    if (Double.isNaN(d)) append("##NaN");
+    else if (d == Double.POSITIVE_INFINITY) append("##Inf");
+    else if (d == Double.NEGATIVE_INFINITY) append("##-Inf");
+    else append(Double.toString(d));
+  }
+
+  // The reader keeps a regex's backslash escapes as they are; only a bare '"' needs one.
+  private void writeRegex(String pattern) {
+    append("#\"");
+    boolean escaped = false;
+    for (int i = 0, n = pattern.length(); i < n; i++) {
+      char c = pattern.charAt(i);
+      if (c == '"' && !escaped) append('\\');
+      append(c);
+      escaped = c == '\\' && !escaped;
+    }
+    append('"');
+  }
+
+  private static int unicodeEscape(char[] a, int p, char c) {
+    a[p++] = '\\';
+    a[p++] = 'u';
+    a[p++] = HEX[(c >> 12) & 0xF];
+    a[p++] = HEX[(c >> 8) & 0xF];
+    a[p++] = HEX[(c >> 4) & 0xF];
+    a[p++] = HEX[c & 0xF];
+    return p;
+  }
+
+  private void append(String s) {
+    int n = s.length();
+    if (len + n > buf.length) grow(n);
+    s.getChars(0, n, buf, len);
+    len += n;
+  }
+
+  private void grow(int extra) {
+    buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+  }
+}
@@ -0,0 +1,193 @@
+package lijeur;
+
+/**
+ * A scan-only lexer that finds top-level form boundaries in a char sequence without building
+ * any forms. It knows just enough of the reader syntax to stay in sync: strings and regexes,
+ * comments, character literals, tokens, delimiters, and the prefix macros that join the next
+ * form(s) into the same top-level form ({@code '}, {@code ^}, {@code #_}, {@code #tag}, ...).
+ *
+ * <p>A boundary is an offset where every form started before it is complete, so a
+ * {@link Reader2} started there reads exactly the remaining top-level forms.
+ */
+final class FormBoundaries {
+
+  private FormBoundaries() {}
+
+  /**
+   * Returns the first top-level boundary at or after {@code target}, scanning from
+   * {@code from} (itself a boundary) up to {@code to}; or -1 if there is none before {@code to},
+   * e.g. because a string or collection is still open there. {@code edn} is the reader's
+   * {@link ReaderOptions#withEdn} mode, which changes where a number ends.
+   */
+  static int next(CharSequence cs, int from, int to, int target, boolean edn) {
+    int depth = 0;
+    // Forms still owed to pending prefix macros at depth 0: ^ owes two (meta, target), the
+    // others one. A prefix fills one owed slot and opens its own: need = need - 1 + arity.
+    int need = 0;
+    int p = from;
+    while (p < to) {
+      if (depth == 0 && need == 0 && p >= target) return p;
+      char c = cs.charAt(p);
+      if (isWhitespace(c)) { p++; continue; }
+      boolean complete;                  // did this step complete a form at depth 0?
+      switch (c) {
+        case '"':
+          p = skipString(cs, p + 1, to);
+          complete = true;
+          break;
+        case ';':
+          p = skipLine(cs, p, to);
+          continue;
+        case '(': case '[': case '{':
+          depth++; p++;
+          continue;
+        case ')': case ']': case '}':
+          p++;
+          if (depth > 0) depth--;        // an unmatched closer is left for the reader to reject
+          complete = true;
+          break;
+        case '\\':                       // character literal: the first char is always taken
+          p = skipToken(cs, p + 2, to);
+          complete = true;
+          break;
+        case '\'': case '`': case '@':
+          p++;
+          need = prefix(depth, need, 1);
+          continue;
+        case '~':
+          p++;
+          if (p < to && cs.charAt(p) == '@') p++;
+          need = prefix(depth, need, 1);
+          continue;
+        case '^':
+          p++;
+          need = prefix(depth, need, 2);
+          continue;
+        case '#': {
+          char d = p + 1 < to ? cs.charAt(p + 1) : 0;
+          switch (d) {
+            case '{': case '(':
+              depth++; p += 2;
+              continue;
+            case '"':
+              p = skipString(cs, p + 2, to);
+              complete = true;
+              break;
+            case '!':
+              p = skipLine(cs, p, to);
+              continue;
+            case '#':                    // ##Inf / ##-Inf / ##NaN
+              p = skipToken(cs, p + 2, to);
+              complete = true;
+              break;
+            case '?':                    // #?( / #?@(
+              p += 2;
+              if (p < to && cs.charAt(p) == '@') p++;
+              need = prefix(depth, need, 1);
+              continue;
+            case ':':                    // #:ns{ / #::{ / #::alias{
+              p = skipToken(cs, p + 2, to);
+              need = prefix(depth, need, 1);
+              continue;
+            case '_': case '\'': case '=':
+              p += 2;
+              need = prefix(depth, need, 1);
+              continue;
+            default:
+              if (Character.isLetter(d)) {   // #tag form
+                p = skipToken(cs, p + 1, to);
+                need = prefix(depth, need, 1);
+                continue;
+              }
+              p++;                       // malformed; the reader reports it
+              continue;
+          }
+          break;
+        }
+        default:
+          if (Character.isDigit(c) || (c == '+' || c == '-') && p + 1 < to && Character.isDigit(cs.charAt(p + 1)))
+            p = skipNumber(cs, p, to, edn);
+          else
+            p = skipToken(cs, p, to);
+          complete = true;
+          break;
+      }
+      if (p > to) return -1;             // unterminated string
+      if (complete && depth == 0 && need > 0) need--;
+    }
+    return depth == 0 && need == 0 && p >= target ? p : -1;
+  }
+
+  private static int prefix(int depth, int need, int arity) {
+    if (depth > 0) return need;
+    return need == 0 ? arity : need - 1 + arity;
+  }
+
+  // Skips past the closing quote of a string or regex (p is just after the opening quote).
+  // Returns to + 1 if the string is unterminated.
+  private static int skipString(CharSequence cs, int p, int to) {
+    while (p < to) {
+      char c = cs.charAt(p);
+      if (c == '\\') p += 2;
+      else if (c == '"') return p + 1;
+      else p++;
+    }
+    return to + 1;
+  }
+
+  private static int skipLine(CharSequence cs, int p, int to) {
+    while (p < to) {
+      char c = cs.charAt(p);
+      if (c == '\n' || c == '\r') return p;
+      p++;
+    }
+    return to;
+  }
+
+  // Token chars run to whitespace or a terminating macro, as in Reader2.readToken.
+  private static int skipToken(CharSequence cs, int p, int to) {
+    if (p > to) return to;
+    while (p < to) {
+      char c = cs.charAt(p);
+      if (isWhitespace(c) || isTerminatingMacro(c)) return p;
+      p++;
+    }
+    return to;
+  }
+
+  private static int skipNumber(CharSequence cs, int p, int to, boolean edn) {
+    while (p < to) {
+      char c = cs.charAt(p);
+      if (isWhitespace(c) || endsNumber(c, edn)) return p;
+      p++;
+    }
+    return to;
+  }
+
+  static boolean isWhitespace(char c) {
+    return c == ',' || Character.isWhitespace(c);
+  }
+
+  static boolean isTerminatingMacro(char c) {
+    switch (c) {
+      case '"': case ';': case '@': case '^': case '`': case '~':
+      case '(': case ')': case '[': case ']': case '{': case '}': case '\\':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  // A number ends at any macro char, as in Reader2.readNumber: # ' and % too, which a symbol
+  // runs on through. In EDN it ends only at EdnReader's, which leaves out ' % @ ` and ~.
+  static boolean endsNumber(char c, boolean edn) {
+    switch (c) {
+      case '#':
+        return true;
+      case '\'': case '%': case '@': case '`': case '~':
+        return !edn;
+      default:
+        return isTerminatingMacro(c);
+    }
+  }
+}
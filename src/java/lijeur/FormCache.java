@@ -0,0 +1,168 @@
+package lijeur;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An on-disk cache of the forms read from inputs, keyed by a SHA-256 hash of the input bytes,
+ * so an unchanged file is decoded from {@link BinaryFormat} instead of read again. A changed
+ * file hashes differently and misses; its old entry ages out.
+ *
+ * <p>Entries are written to a temporary file and moved into place, so a concurrent or killed
+ * writer never leaves a partial entry; an entry that fails to decode is deleted and counts as a
+ * miss. After each write the least recently used entries (by modification time, refreshed on
+ * every hit) are deleted until the directory is within {@code maxBytes}.
+ *
+ * <p>The key covers the content only, not the {@link ReaderOptions}: use one directory per
+ * reader configuration. Forms holding values the encoding has no tag for (data reader results
+ * other than {@code #inst}, {@code #uuid} and tagged literals) are returned but not cached.
+ */
+public final class FormCache {
+
+  private static final String SUFFIX = ".forms";
+  // Format version in the last byte; 2 since records are tagged, which version 1 wrote as maps.
+  private static final byte[] MAGIC = {'L', 'J', 'F', 2};
+
+  private final Path dir;
+  private final long maxBytes;
+  private final ReaderOptions opts;
+
+  public FormCache(Path dir, long maxBytes, ReaderOptions opts) throws IOException {
+    this.dir = Files.createDirectories(dir);
+    this.maxBytes = maxBytes;
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+  }
+
+  public FormCache(Path dir, long maxBytes) throws IOException {
+    this(dir, maxBytes, ReaderOptions.fromBindings());
+  }
+
+  /** The top-level forms of {@code file}, read as UTF-8. */
+  public List<Object> read(Path file) throws IOException {
+    return read(Files.readAllBytes(file));
+  }
+
+  /** The top-level forms of the UTF-8 text {@code content}. */
+  public List<Object> read(byte[] content) throws IOException {
+    Path entry = dir.resolve(hash(content) + SUFFIX);
+    List<Object> forms = load(entry);
+    if (forms != null) return forms;
+    forms = new ArrayList<>();
+    Reader2 r = new Reader2(new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8),
+        Reader2.DEFAULT_CHUNK_SIZE, opts);
+    for (Object o; (o = r.read()) != Reader2.EOF; ) forms.add(o);
+    store(entry, forms);
+    return forms;
+  }
+
+  private List<Object> load(Path entry) throws IOException {
+    try (InputStream in = new BufferedInputStream(Files.newInputStream(entry))) {
+      byte[] magic = in.readNBytes(MAGIC.length);
+      if (!java.util.Arrays.equals(magic, MAGIC)) throw new IOException("Not a form cache entry");
+      BinaryReader r = new BinaryReader(in);
+      List<Object> forms = new ArrayList<>();
+      for (Object o; (o = r.read()) != Reader2.EOF; ) forms.add(o);
+      Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+      return forms;
+    } catch (NoSuchFileException e) {
+      return null;
+    } catch (IOException | RuntimeException e) {   // truncated or from another version
+      Files.deleteIfExists(entry);
+      return null;
+    }
+  }
+
+  private void store(Path entry, List<Object> forms) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    bytes.write(MAGIC);
+    BinaryWriter w = new BinaryWriter(bytes);
+    try {
+      for (Object o : forms) w.write(o);
+    } catch (IllegalArgumentException e) {
+      return;                               // not encodable: leave it uncached
+    }
+    w.flush();
+    Path tmp = Files.createTempFile(dir, "entry", ".tmp");
+    try {
+      Files.write(tmp, bytes.toByteArray());
+      try {
+        Files.move(tmp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmp, entry, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+    evict();
+  }
+
+  // Deletes least recently used entries until the directory is within maxBytes.
+  private void evict() throws IOException {
+    List<Path> entries = new ArrayList<>();
+    long total = 0;
+    try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+      for (Path p : ds) {
+        entries.add(p);
+        total += size(p);
+      }
+    }
+    if (total <= maxBytes) return;
+    List<Object[]> byAge = new ArrayList<>();
+    for (Path p : entries) byAge.add(new Object[]{lastModified(p), p});
+    Collections.sort(byAge, (a, b) -> Long.compare((Long) a[0], (Long) b[0]));
+    for (Object[] e : byAge) {
+      if (total <= maxBytes) break;
+      Path p = (Path) e[1];
+      total -= size(p);
+      Files.deleteIfExists(p);
+    }
+  }
+
+  // Size and time of an entry another process may delete meanwhile (then 0).
+  private static long size(Path p) throws IOException {
+    try {
+      return Files.size(p);
+    } catch (NoSuchFileException e) {
+      return 0;
+    }
+  }
+
+  private static long lastModified(Path p) throws IOException {
+    try {
+      return Files.getLastModifiedTime(p).toMillis();
+    } catch (NoSuchFileException e) {
+      return 0;
+    }
+  }
+
+  private static String hash(byte[] content) {
+    MessageDigest md;
+    try {
+      md = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);   // every JDK has SHA-256
+    }
+    byte[] d = md.digest(content);
+    StringBuilder sb = new StringBuilder(2 * d.length);
+    for (byte b : d) sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+    return sb.toString();
+  }
+}
@@ -0,0 +1,168 @@
+package lijeur;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link Flow.Publisher} of the top-level forms of an input, read with {@link Reader2} only
+ * as fast as the subscriber asks: each {@code request(n)} reads exactly {@code n} more forms,
+ * and nothing is read while demand is zero. Reading runs as tasks on the given executor, so a
+ * slow input ties up a thread only while there is demand; a virtual-thread-per-task executor
+ * makes even that cheap.
+ *
+ * <p>The input can be consumed once, so a second subscriber gets {@code onError}. End of input
+ * completes the subscriber; a reader exception is passed to {@code onError} as is; both, and
+ * {@code cancel()}, close the input. Flow forbids {@code null} elements, so a {@code nil}
+ * form is delivered as {@link #NIL}.
+ */
+public final class FormPublisher implements Flow.Publisher<Object> {
+
+  /** Stands in for a {@code nil} form, which Flow cannot deliver as {@code null}. */
+  public static final Object NIL = new Object() {
+    @Override
+    public String toString() {
+      return "nil";
+    }
+  };
+
+  private final java.io.Reader input;
+  private final ReaderOptions opts;
+  private final int chunkSize;
+  private final Executor executor;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  public FormPublisher(java.io.Reader input, int chunkSize, ReaderOptions opts, Executor executor) {
+    this.input = input;
+    this.chunkSize = chunkSize;
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+    this.executor = executor;
+  }
+
+  /** Reads on {@link ForkJoinPool#commonPool()}, like {@link java.util.concurrent.SubmissionPublisher}. */
+  public FormPublisher(java.io.Reader input) {
+    this(input, Reader2.DEFAULT_CHUNK_SIZE, ReaderOptions.fromBindings(), ForkJoinPool.commonPool());
+  }
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super Object> subscriber) {
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Flow.Subscription() {
+        @Override public void request(long n) {}
+        @Override public void cancel() {}
+      });
+      subscriber.onError(new IllegalStateException("FormPublisher allows a single subscriber"));
+      return;
+    }
+    FormSubscription s = new FormSubscription(subscriber);
+    subscriber.onSubscribe(s);
+  }
+
+  private final class FormSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super Object> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    // Work-in-progress counter: only the caller that moves it off 0 schedules a drain, so at
+    // most one task reads at a time and no signal is lost.
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile Throwable badRequest; // delivered by the draining task, keeping signals serial
+    private boolean done;                  // only touched by the draining task
+    private Reader2 reader;                // created by the first drain
+
+    FormSubscription(Flow.Subscriber<? super Object> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        badRequest = new IllegalArgumentException("non-positive subscription request: " + n);
+        signal();
+        return;
+      }
+      long d, next;
+      do {
+        d = demand.get();
+        next = d + n < 0 ? Long.MAX_VALUE : d + n;     // saturate, as the Flow spec allows
+      } while (!demand.compareAndSet(d, next));
+      signal();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      signal();
+    }
+
+    private void signal() {
+      if (wip.getAndIncrement() == 0) {
+        try {
+          executor.execute(this::drain);
+        } catch (RuntimeException e) {              // e.g. a rejecting, shut down executor
+          done = true;
+          close();
+          subscriber.onError(e);
+        }
+      }
+    }
+
+    private void drain() {
+      int missed = 1;
+      while (true) {
+        if (!done) {
+          if (badRequest != null) {
+            done = true;
+            close();
+            subscriber.onError(badRequest);
+          } else if (cancelled) {
+            done = true;
+            close();
+          } else {
+            emit();
+          }
+        }
+        missed = wip.addAndGet(-missed);
+        if (missed == 0) return;
+      }
+    }
+
+    // Reads and delivers forms while there is demand.
+    private void emit() {
+      long d = demand.get();
+      long sent = 0;
+      while (sent != d && !cancelled && badRequest == null) {
+        Object form;
+        try {
+          if (reader == null) reader = new Reader2(input, chunkSize, opts);
+          form = reader.read();
+        } catch (IOException | RuntimeException e) {
+          done = true;
+          close();
+          if (!cancelled) subscriber.onError(e);
+          return;
+        }
+        if (form == Reader2.EOF) {
+          done = true;
+          close();
+          subscriber.onComplete();
+          return;
+        }
+        subscriber.onNext(form == null ? NIL : form);
+        sent++;
+      }
+      if (d != Long.MAX_VALUE) demand.addAndGet(-sent);
+    }
+
+    private void close() {
+      try {
+        input.close();
+      } catch (IOException e) {
+        // nothing left to report it to: the subscriber is done or gone
+      }
+    }
+  }
+}
@@ -0,0 +1,123 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.CharBuffer;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * A {@link Spliterator} over the top-level forms of an input, read with {@link Reader2}. See
+ * {@link Reader2#stream}.
+ *
+ * <p>Over a {@link CharSequence} (a String, or a CharBuffer decoded from a mapped file) it
+ * splits: {@link #trySplit()} cuts the not-yet-traversed range at the first top-level form
+ * boundary past its middle (found by {@link FormBoundaries}, which builds no forms) and
+ * hands the front half to a new spliterator with its own reader. Over a plain
+ * {@link java.io.Reader} it is sequential.
+ *
+ * <p>Characteristics are {@link #ORDERED} only: {@code nil} reads as {@code null}, so the
+ * spliterator cannot claim {@link #NONNULL}, and the form count is not known up front. The
+ * size estimate is the number of chars left, an upper bound on the forms left.
+ */
+public final class FormSpliterator implements Spliterator<Object> {
+
+  // Ranges smaller than this are not worth the boundary scan a split costs.
+  static final int MIN_SPLIT = 1 << 16;
+
+  private final CharSequence source;       // null for a sequential java.io.Reader source
+  private int lo;
+  private final int hi;
+  private final int minSplit;
+  private final int chunkSize;
+  private final ReaderOptions opts;
+  private Reader2 reader;                  // created on first advance
+  private boolean done;
+
+  FormSpliterator(CharSequence source, int lo, int hi, int chunkSize, ReaderOptions opts, int minSplit) {
+    this.source = source;
+    this.lo = lo;
+    this.hi = hi;
+    this.chunkSize = chunkSize;
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+    this.minSplit = minSplit;
+  }
+
+  public FormSpliterator(CharSequence source, ReaderOptions opts) {
+    this(source, 0, source.length(), Reader2.DEFAULT_CHUNK_SIZE, opts, MIN_SPLIT);
+  }
+
+  public FormSpliterator(java.io.Reader r, ReaderOptions opts) {
+    this(null, 0, 0, Reader2.DEFAULT_CHUNK_SIZE, opts, MIN_SPLIT);
+    this.reader = new Reader2(r, Reader2.DEFAULT_CHUNK_SIZE, this.opts);
+  }
+
+  @Override
+  public boolean tryAdvance(Consumer<? super Object> action) {
+    if (done) return false;
+    Reader2 r = reader;
+    if (r == null) r = reader = new Reader2(new RangeReader(source, lo, hi), chunkSize, opts);
+    Object o;
+    try {
+      o = r.read();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (o == Reader2.EOF) { done = true; return false; }
+    action.accept(o);
+    return true;
+  }
+
+  @Override
+  public Spliterator<Object> trySplit() {
+    // Only an untouched CharSequence range can split: once reading starts, the reader's
+    // position within its buffer is no longer a known offset.
+    if (source == null || reader != null || hi - lo < 2 * minSplit) return null;
+    int mid = lo + ((hi - lo) >>> 1);
+    int b = FormBoundaries.next(source, lo, hi, mid, opts.edn);
+    if (b <= lo || b >= hi) return null;
+    FormSpliterator front = new FormSpliterator(source, lo, b, chunkSize, opts, minSplit);
+    lo = b;
+    return front;
+  }
+
+  @Override
+  public long estimateSize() {
+    if (source == null) return Long.MAX_VALUE;
+    return done ? 0 : hi - lo;
+  }
+
+  @Override
+  public int characteristics() {
+    return ORDERED;
+  }
+
+  // A java.io.Reader over cs[start, end), without copying the range out first.
+  static final class RangeReader extends java.io.Reader {
+    private final CharBuffer cb;
+
+    RangeReader(CharSequence cs, int start, int end) {
+      if (cs instanceof CharBuffer) {            // bulk get() instead of charAt per char
+        CharBuffer d = ((CharBuffer) cs).duplicate();
+        int base = d.position();
+        d.limit(base + end);
+        d.position(base + start);
+        this.cb = d;
+      } else {
+        this.cb = CharBuffer.wrap(cs, start, end);
+      }
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) {
+      int n = Math.min(len, cb.remaining());
+      if (n == 0) return len == 0 ? 0 : -1;
+      cb.get(cbuf, off, n);
+      return n;
+    }
+
+    @Override
+    public void close() {}
+  }
+}
@@ -0,0 +1,173 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The top-level forms of a text that is being edited, kept up to date incrementally. Each
+ * {@link #edit} re-reads from the first top-level form the edit can touch, and stops as soon as
+ * a freshly read form ends, past the inserted text, exactly where an old form ended: the text
+ * from there on is unchanged and read from a top-level position, so the remaining old forms are
+ * kept as they are (same instances), with their offsets shifted, and so is a read error past them.
+ *
+ * <p>Reading stops at the first error, e.g. a string opened by an edit that runs to the end of
+ * the text. The forms before it are kept, {@link #error()} returns the exception and
+ * {@link #errorOffset()} where reading stopped; the text after it has no forms until an edit
+ * makes it readable again.
+ *
+ * <p>Offsets are char offsets into {@link #text()}. Not thread-safe.
+ */
+public final class ParseSession {
+
+  private final StringBuilder text;
+  private final ReaderOptions opts;
+
+  // Top-level forms in order: form i spans [starts[i], ends[i]).
+  private Object[] forms = new Object[16];
+  private int[] starts = new int[16];
+  private int[] ends = new int[16];
+  private int size;
+
+  private RuntimeException error;
+  private int errorOffset = -1;
+  int lastReread;                          // forms read by the last parse, for tests
+
+  public ParseSession(CharSequence text, ReaderOptions opts) {
+    this.text = new StringBuilder(text);
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+    parse(0, 0, Integer.MAX_VALUE, 0, 0);
+  }
+
+  public ParseSession(CharSequence text) {
+    this(text, ReaderOptions.fromBindings());
+  }
+
+  /**
+   * Replaces the {@code removed} chars at {@code offset} with {@code inserted} and re-reads the
+   * forms that may have changed.
+   */
+  public void edit(int offset, int removed, CharSequence inserted) {
+    if (offset < 0 || removed < 0 || offset + removed > text.length())
+      throw new IndexOutOfBoundsException("edit [" + offset + ", " + (offset + removed)
+          + ") outside text of length " + text.length());
+    text.replace(offset, offset + removed, inserted.toString());
+    int delta = inserted.length() - removed;
+    // The first form that ends at or after the edit can change: a token ending right at the
+    // offset grows when text is inserted after it.
+    int k = 0;
+    while (k < size && ends[k] < offset) k++;
+    int from = k == 0 ? 0 : ends[k - 1];
+    parse(k, from, offset + inserted.length(), delta, size);
+  }
+
+  // Re-reads from `from`, replacing forms [k, oldSize). Once a new form ends at or after
+  // `stable` where an old one ended (shifted by delta), the old forms after it are kept.
+  private void parse(int k, int from, int stable, int delta, int oldSize) {
+    Object[] oldForms = forms;
+    int[] oldStarts = starts;
+    int[] oldEnds = ends;
+    int n = oldSize - k;                   // old forms still candidates for reuse
+    RuntimeException oldError = error;
+    int oldErrorOffset = errorOffset;
+    forms = Arrays.copyOf(oldForms, Math.max(16, k * 2));
+    starts = Arrays.copyOf(oldStarts, forms.length);
+    ends = Arrays.copyOf(oldEnds, forms.length);
+    size = k;
+    error = null;
+    errorOffset = -1;
+    lastReread = 0;
+
+    Reader2 r = new Reader2(new FormSpliterator.RangeReader(text, from, text.length()),
+        Reader2.DEFAULT_CHUNK_SIZE, opts);
+    long[] start = new long[1];
+    int j = k;                             // next old form to compare against
+    while (true) {
+      Object o;
+      try {
+        o = r.readTopLevel(start);
+      } catch (RuntimeException e) {
+        error = e;
+        errorOffset = from + (int) r.offset();
+        return;
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      if (o == Reader2.EOF) return;
+      int end = from + (int) r.offset();
+      add(o, from + (int) start[0], end);
+      lastReread++;
+      if (end < stable) continue;
+      while (j < k + n && oldEnds[j] + delta < end) j++;
+      if (j < k + n && oldEnds[j] + delta == end) {
+        for (int i = j + 1; i < k + n; i++) add(oldForms[i], oldStarts[i] + delta, oldEnds[i] + delta);
+        if (oldError != null) {            // the unchanged rest still fails the same way
+          error = oldError;
+          errorOffset = oldErrorOffset + delta;
+        }
+        return;
+      }
+    }
+  }
+
+  private void add(Object form, int start, int end) {
+    if (size == forms.length) {
+      forms = Arrays.copyOf(forms, size * 2);
+      starts = Arrays.copyOf(starts, size * 2);
+      ends = Arrays.copyOf(ends, size * 2);
+    }
+    forms[size] = form;
+    starts[size] = start;
+    ends[size] = end;
+    size++;
+  }
+
+  public String text() {
+    return text.toString();
+  }
+
+  /** Number of top-level forms read. */
+  public int size() {
+    return size;
+  }
+
+  public Object form(int i) {
+    return forms[i];
+  }
+
+  /** Start offset of form {@code i}, past any whitespace, comments and discarded forms. */
+  public int start(int i) {
+    return starts[i];
+  }
+
+  /** End offset (exclusive) of form {@code i}. */
+  public int end(int i) {
+    return ends[i];
+  }
+
+  /** The top-level forms, as a read-only view of the current state. */
+  public List<Object> forms() {
+    return new AbstractList<Object>() {
+      @Override public Object get(int i) {
+        if (i >= size) throw new IndexOutOfBoundsException(i);
+        return forms[i];
+      }
+      @Override public int size() {
+        return size;
+      }
+    };
+  }
+
+  /** The exception that stopped reading, or null if the whole text was read. */
+  public RuntimeException error() {
+    return error;
+  }
+
+  /** Offset at which reading stopped with {@link #error()}, or -1. */
+  public int errorOffset() {
+    return errorOffset;
+  }
+}
@@ -0,0 +1,272 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A push-style reader for non-blocking input: the caller hands over chunks of chars or UTF-8
+ * bytes as they arrive, with {@link #feed}, and gets back the top-level forms they complete.
+ * No thread waits on the input.
+ *
+ * <p>Each chunk is scanned once by a resumable state machine (the scan of
+ * {@link FormBoundaries}, with its position kept across chunks) that can stop anywhere: in a
+ * token, a string or an escape, after a {@code #} or {@code ~}, or at any collection depth.
+ * Once the buffered text contains complete top-level forms, that prefix is read with a
+ * {@link Reader2} and dropped, so only the unfinished tail is kept. The forms and errors are
+ * therefore those {@link Reader2} gives on the concatenated input.
+ *
+ * <p>A form that is only complete at end of input (a trailing token, or an unterminated form
+ * that must fail) is read by {@link #finish()}. If reading fails after some forms of a call,
+ * those forms are returned and the exception is thrown by the next call; once failed, the
+ * parser keeps throwing it. Not thread-safe.
+ */
+public final class PushParser {
+
+  // Scanner modes: where the last chunk stopped.
+  private static final int NORMAL = 0;
+  private static final int STRING = 1;      // in a string or regex
+  private static final int ESCAPE = 2;      // after a backslash in a string
+  private static final int COMMENT = 3;     // in a ; or #! comment
+  private static final int TOKEN = 4;       // in a token
+  private static final int CHAR = 5;        // after \ : the next char is always part of the literal
+  private static final int HASH = 6;        // after #
+  private static final int TILDE = 7;       // after ~ : maybe ~@
+  private static final int HASH_COND = 8;   // after #? : maybe #?@
+  private static final int SIGN = 9;        // after a leading + or - : a digit makes a number
+
+  private final ReaderOptions opts;
+
+  private char[] buf = new char[256];
+  private int len;
+  private int scanned;                      // buf[0, scanned) has been scanned
+  private int boundary;                     // last top-level boundary in buf[0, scanned]
+
+  private int mode = NORMAL;
+  private boolean prefixToken;              // the TOKEN is a #tag or #:ns prefix, not a form
+  private boolean numberToken;              // the TOKEN is a number, which any macro char ends
+  private int depth;
+  // Forms owed to pending prefix macros at depth 0, as in FormBoundaries.next.
+  private int need;
+
+  private CharsetDecoder decoder;           // created by the first byte chunk
+  private byte[] carry = new byte[8];       // bytes of a code point split across chunks
+  private int carryLen;
+
+  private RuntimeException failure;
+  private boolean finished;
+
+  public PushParser(ReaderOptions opts) {
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+  }
+
+  public PushParser() {
+    this(ReaderOptions.fromBindings());
+  }
+
+  /** Appends {@code chunk} and returns the top-level forms completed so far, in order. */
+  public List<Object> feed(CharSequence chunk) {
+    checkOpen();
+    int n = chunk.length();
+    ensureCapacity(n);
+    if (chunk instanceof String) ((String) chunk).getChars(0, n, buf, len);
+    else for (int i = 0; i < n; i++) buf[len + i] = chunk.charAt(i);
+    len += n;
+    scan();
+    return readTo(boundary);
+  }
+
+  /**
+   * Appends the bytes remaining in {@code chunk}, decoded as UTF-8, and returns the top-level
+   * forms completed so far. A code point split across chunks is decoded once it is whole;
+   * malformed input is replaced, as {@link java.io.InputStreamReader} does.
+   */
+  public List<Object> feed(ByteBuffer chunk) {
+    checkOpen();
+    if (decoder == null) {
+      decoder = StandardCharsets.UTF_8.newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    }
+    ByteBuffer in = chunk;
+    if (carryLen > 0) {                     // rare: prepend the bytes left from the last chunk
+      in = ByteBuffer.allocate(carryLen + chunk.remaining());
+      in.put(carry, 0, carryLen).put(chunk).flip();
+      carryLen = 0;
+    }
+    decode(in, false);
+    scan();
+    return readTo(boundary);
+  }
+
+  /**
+   * Signals end of input and returns the remaining forms, throwing what {@link Reader2} throws
+   * at end of input if a form is left unfinished.
+   */
+  public List<Object> finish() {
+    checkOpen();
+    finished = true;
+    if (decoder != null) {
+      decode(ByteBuffer.wrap(carry, 0, carryLen), true);
+      carryLen = 0;
+      ensureCapacity(4);
+      CharBuffer out = CharBuffer.wrap(buf, len, buf.length - len);
+      decoder.flush(out);
+      len = out.position();
+    }
+    return readTo(len);
+  }
+
+  private void checkOpen() {
+    if (failure != null) throw failure;
+    if (finished) throw new IllegalStateException("PushParser already finished");
+  }
+
+  private void decode(ByteBuffer in, boolean endOfInput) {
+    // UTF-8 never decodes to more chars than bytes, plus one replacement for a cut sequence.
+    ensureCapacity(in.remaining() + 1);
+    CharBuffer out = CharBuffer.wrap(buf, len, buf.length - len);
+    decoder.decode(in, out, endOfInput);
+    len = out.position();
+    int left = in.remaining();
+    if (left > 0) {
+      if (left > carry.length) carry = new byte[left];
+      in.get(carry, 0, left);
+      carryLen = left;
+    }
+  }
+
+  private void ensureCapacity(int extra) {
+    if (len + extra > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, len + extra));
+  }
+
+  // Reads the forms in buf[0, end) and drops them. buf[0, end) holds whole top-level forms,
+  // unless end is the end of input.
+  private List<Object> readTo(int end) {
+    List<Object> out = new ArrayList<>();
+    if (end == 0) return out;
+    int chunk = Math.min(end, Reader2.DEFAULT_CHUNK_SIZE);
+    Reader2 r = new Reader2(new FormSpliterator.RangeReader(CharBuffer.wrap(buf, 0, len), 0, end),
+        chunk, opts);
+    try {
+      for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    } catch (RuntimeException e) {
+      failure = e;
+      if (out.isEmpty()) throw e;
+      return out;                           // the error is thrown by the next call
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    System.arraycopy(buf, end, buf, 0, len - end);
+    len -= end;
+    scanned -= end;
+    boundary = 0;
+    return out;
+  }
+
+  // Advances the scanner over buf[scanned, len), recording the last top-level boundary.
+  private void scan() {
+    char[] b = buf;
+    int p = scanned;
+    int end = len;
+    while (p < end) {
+      char c = b[p];
+      switch (mode) {
+        case STRING:
+          if (c == '\\') mode = ESCAPE;
+          else if (c == '"') { mode = NORMAL; completed(); }
+          p++;
+          continue;
+        case ESCAPE:
+          mode = STRING;
+          p++;
+          continue;
+        case COMMENT:
+          if (c == '\n' || c == '\r') mode = NORMAL;   // the newline is rescanned as whitespace
+          else p++;
+          continue;
+        case TOKEN:
+          if (FormBoundaries.isWhitespace(c)
+              || (numberToken ? FormBoundaries.endsNumber(c, opts.edn) : FormBoundaries.isTerminatingMacro(c))) {
+            mode = NORMAL;                  // the delimiter is rescanned
+            numberToken = false;
+            if (prefixToken) { prefixToken = false; prefix(1); }
+            else completed();
+          } else {
+            p++;
+          }
+          continue;
+        case SIGN:
+          mode = TOKEN;                     // c is rescanned as the token's second char
+          numberToken = Character.isDigit(c);
+          continue;
+        case CHAR:
+          mode = TOKEN;
+          p++;
+          continue;
+        case TILDE: case HASH_COND:
+          mode = NORMAL;
+          if (c == '@') p++;
+          prefix(1);
+          continue;
+        case HASH:
+          mode = NORMAL;
+          switch (c) {
+            case '{': case '(': depth++; p++; continue;
+            case '"': mode = STRING; p++; continue;
+            case '!': mode = COMMENT; p++; continue;
+            case '#': mode = TOKEN; p++; continue;            // ##Inf / ##-Inf / ##NaN
+            case '?': mode = HASH_COND; p++; continue;        // #?( / #?@(
+            case ':': mode = TOKEN; prefixToken = true; p++; continue;   // #:ns{ / #::{
+            case '_': case '\'': case '=': p++; prefix(1); continue;
+            default:
+              if (Character.isLetter(c)) { mode = TOKEN; prefixToken = true; }   // #tag form
+              continue;                     // else malformed; the reader reports it
+          }
+        default:
+          break;
+      }
+      if (depth == 0 && need == 0) boundary = p;
+      if (FormBoundaries.isWhitespace(c)) { p++; continue; }
+      p++;
+      switch (c) {
+        case '"': mode = STRING; break;
+        case ';': mode = COMMENT; break;
+        case '(': case '[': case '{': depth++; break;
+        case ')': case ']': case '}':
+          if (depth > 0) depth--;           // an unmatched closer is left for the reader to reject
+          completed();
+          break;
+        case '\\': mode = CHAR; break;
+        case '\'': case '`': case '@': prefix(1); break;
+        case '~': mode = TILDE; break;
+        case '^': prefix(2); break;
+        case '#': mode = HASH; break;
+        case '+': case '-': mode = SIGN; break;
+        default:
+          mode = TOKEN;
+          numberToken = Character.isDigit(c);
+          break;
+      }
+    }
+    scanned = p;
+    if (mode == NORMAL && depth == 0 && need == 0) boundary = p;
+  }
+
+  // A form just ended: at depth 0 it fills a slot owed to a pending prefix.
+  private void completed() {
+    if (depth == 0 && need > 0) need--;
+  }
+
+  private void prefix(int arity) {
+    if (depth == 0) need = need == 0 ? arity : need - 1 + arity;
+  }
+}
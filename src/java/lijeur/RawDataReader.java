@@ -0,0 +1,39 @@
+package lijeur;
+
+import java.io.IOException;
+
+/**
+ * A data reader that parses its tagged literal straight from {@link Reader2}'s buffer,
+ * registered per tag with {@link Reader2#registerRawReader}. {@code Reader2.readTagged}
+ * consults these before {@code *data-readers*}, so a literal such as
+ * {@code #decimal "1.50"} or {@code #bytes "AAEC"} is parsed in one pass: no intermediate
+ * String form, no Var lookups, and no {@code IFn} invoke.
+ *
+ * <p>The char range handed to {@link #readChars} aliases the reader's backing array and is
+ * only valid for the duration of the call.
+ */
+public interface RawDataReader {
+
+  /**
+   * Parses a string or token literal. For a string ({@code string == true}) the range is the
+   * content between the quotes with escapes already decoded; for a token it is the raw token
+   * text, e.g. {@code 1.50} in {@code #decimal 1.50}.
+   */
+  Object readChars(char[] chars, int start, int end, boolean string);
+
+  /**
+   * Parses a collection literal. {@code open} is the opening delimiter ({@code (}, {@code [}
+   * or {@code {}) and {@code elements} pulls the element forms one at a time. Elements left
+   * unread when this returns are read and dropped so the reader stays in sync.
+   */
+  default Object readCollection(int open, Cursor elements) throws IOException {
+    throw new RuntimeException("Raw data reader does not accept a collection literal");
+  }
+
+  /** Pull-style access to the elements of a collection literal. */
+  interface Cursor {
+    boolean hasNext() throws IOException;
+
+    Object next() throws IOException;
+  }
+}
@@ -817,17 +817,24 @@ public class Reader {
     }
   }
 
+  // The alias `namespace` names in the current namespace, else the namespace of that name.
+  private Namespace resolveNs(Symbol namespace) {
+    Namespace ns = ((Namespace) RT.CURRENT_NS.get()).lookupAlias(namespace);
+    return ns != null ? ns : Namespace.find(namespace);
+  }
+
   private Symbol registerGensym(Symbol sym) {
-    if(gensymEnv.get() == null) {
+    IPersistentMap env = gensymEnv.get();
+    if(env == null) {
       throw new ReaderException("Gensym literal not in syntax-quote", fileName, buffer.getLine(), buffer.getColumn());
-    } else {
-      Symbol gensym = (Symbol) gensymEnv.get().entryAt(sym);
-      if(gensym != null) {
-        return gensym;
-      } else {
-
-      }
     }
+    Symbol gensym = (Symbol) env.valAt(sym);
+    if(gensym == null) {
+      String name = sym.getName();
+      gensym = Symbol.intern(null, name.substring(0, name.length() - 1) + "__" + RT.nextID() + "__auto__");
+      gensymEnv.set(env.assoc(sym, gensym));
+    }
+    return gensym;
   }
 
   public Object readSyntaxQuote() throws IOException {
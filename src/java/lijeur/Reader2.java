@@ -12,6 +12,7 @@ import clojure.lang.IPersistentSet;
 import clojure.lang.IPersistentVector;
 import clojure.lang.IRecord;
 import clojure.lang.IReference;
+import clojure.lang.ITransientVector;
 import clojure.lang.ISeq;
 import clojure.lang.Keyword;
 import clojure.lang.LazilyPersistentVector;
@@ -21,7 +22,9 @@ import clojure.lang.PersistentHashSet;
 import clojure.lang.PersistentList;
 import clojure.lang.PersistentVector;
 import clojure.lang.RT;
+import clojure.lang.ReaderConditional;
 import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -29,6 +32,8 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A fast Clojure/EDN reader built on {@link Buffer}. Behaviour matches Clojure
@@ -43,7 +48,8 @@ import java.util.regex.Pattern;
  * namespaced maps ({@code #:ns{...}} / {@code #::{...}}), syntax-quote ({@code `} with
  * {@code ~}/{@code ~@} expansion and auto-gensym {@code foo#}), and the anonymous fn literal
  * ({@code #(...)} with {@code %}/{@code %n}/{@code %&}). {@link #read()} skips leading
- * whitespace and reads a single form.
+ * whitespace and reads a single form. Tags registered with {@link #registerRawReader} are
+ * parsed straight from the buffer by a {@link RawDataReader} instead of a data reader fn.
  *
  * <p>{@code *read-eval*} is honoured: {@code :unknown} disallows all reading, and the
  * {@code #=} eval reader throws when {@code *read-eval*} is {@code false}/{@code nil}.
@@ -75,8 +81,37 @@ public class Reader2 {
     }
   }
 
+  // EdnReader's macro characters: LispReader's less quote, deref, the unquotes and %.
+  private static final boolean[] EDN_MACRO = MACRO.clone();
+  static {
+    for (char c : new char[]{'\'', '@', '`', '~', '%'}) EDN_MACRO[c] = false;
+  }
+
+  // Dynamic-Var state captured once (see ReaderOptions), so the hot path never derefs a Var.
+  private ReaderOptions opts;
+  // Attach :line/:column/:end-line/:end-column to collections and symbols.
+  private final boolean lineNumbers;
+  // Side table of form spans; null unless trackSpans() was called.
+  private SpanTable spans;
+
+  /**
+   * With {@code lineNumbers}, lists, vectors, maps, sets and symbols get {@code :line},
+   * {@code :column}, {@code :end-line} and {@code :end-column} metadata (1-based, counted like
+   * {@link clojure.lang.LineNumberingPushbackReader}). Line breaks are counted in bulk between
+   * the positions asked for, not per char read.
+   */
+  public Reader2(java.io.Reader r, int chunkSize, ReaderOptions opts, boolean lineNumbers) {
+    this.buffer = new Buffer(r, chunkSize, lineNumbers);
+    this.opts = opts;
+    this.lineNumbers = lineNumbers;
+  }
+
+  public Reader2(java.io.Reader r, int chunkSize, ReaderOptions opts) {
+    this(r, chunkSize, opts, false);
+  }
+
   public Reader2(java.io.Reader r, int chunkSize) {
-    this.buffer = new Buffer(r, chunkSize);
+    this(r, chunkSize, ReaderOptions.fromBindings());
   }
 
   public Reader2(java.io.Reader r) {
@@ -90,16 +125,197 @@ public class Reader2 {
 
   // *read-eval* gating, mirroring LispReader. :unknown disallows all reading; false/nil
   // additionally disables the #= eval reader.
-  private static final clojure.lang.Var READ_EVAL = RT.var("clojure.core", "*read-eval*");
   private static final Keyword UNKNOWN = Keyword.intern(null, "unknown");
 
-  /** Reads one form, or returns {@link #EOF} at end of input. */
+  /**
+   * Reads one form, or returns the options' EOF value ({@link #EOF} unless configured
+   * otherwise) at end of input.
+   */
   public Object read() throws IOException {
-    // LispReader guards the top of read() the same way: :unknown blocks everything.
-    if (READ_EVAL.deref() == UNKNOWN)
+    checkReadAllowed();
+    try {
+      Object o = read0(0);
+      return o == READ_EOF ? opts.eof : o;
+    } catch (RuntimeException e) {
+      throw located(e);
+    }
+  }
+
+  // Set by reportErrorPositions: errors are then rethrown as ReaderExceptions.
+  private boolean errorPositions;
+  private String errorFile;
+
+  /**
+   * Makes read errors carry their position: {@link #read()} and {@link #readBatch} rethrow them
+   * as {@link ReaderException}s with {@code file} (may be null) and the 1-based line and column
+   * where reading stopped, the original exception as cause. Reading itself keeps only offsets;
+   * the line and column are worked out when an error is thrown, from line breaks counted in
+   * bulk as the buffer drops consumed input (nothing at all for input that fits the buffer).
+   * Call before the first read.
+   */
+  public void reportErrorPositions(String file) {
+    buffer.trackLines();
+    errorPositions = true;
+    errorFile = file;
+  }
+
+  private RuntimeException located(RuntimeException e) {
+    if (!errorPositions || e instanceof ReaderException) return e;
+    Buffer b = buffer;
+    int p = Math.min(b.pos, b.posEnd);
+    int line = b.lineAt(p) + 1;
+    return new ReaderException(e.getMessage(), errorFile, line, b.columnAt(p) + 1, e);
+  }
+
+  // Like read(), also storing the form's absolute start offset in start[0] (past whitespace,
+  // comments and discards). The end is offset() afterwards. For ParseSession.
+  Object readTopLevel(long[] start) throws IOException {
+    checkReadAllowed();
+    while (true) {
+      int c1 = skipWhitespace();
+      if (c1 == -1) return opts.eof;
+      start[0] = buffer.base + buffer.pos;
+      Object o = read1(c1);
+      if (o != SKIP) return o;
+    }
+  }
+
+  // Absolute offset of the next unread char.
+  long offset() {
+    return buffer.base + buffer.pos;
+  }
+
+  // Chars the buffer can hold now; above 2 * chunkSize while a long token is being read.
+  int bufferCapacity() {
+    return buffer.bufferSize;
+  }
+
+  // Uses `cache` for plain tokens instead of a cache of its own.
+  void shareTokens(TokenCache cache) {
+    tokens = cache;
+  }
+
+  // Starts over on a new input, keeping the buffer and token cache. Spans are not tracked.
+  void reset(java.io.Reader r) {
+    buffer.reset(r);
+    spans = null;
+    argEnv = null;
+    gensymEnv = null;
+    pendingForms = null;
+    recordConstructors = null;
+    delimDepth = 0;
+    preserveDepth = 0;
+  }
+
+  /**
+   * Reads up to {@code max} top-level forms into {@code out[0..)}, returning how many were
+   * read. Fewer than {@code max} (0 included) means end of input was reached. The
+   * {@code *read-eval*} guard runs once per batch rather than once per form.
+   */
+  public int readBatch(Object[] out, int max) throws IOException {
+    checkReadAllowed();
+    int n = 0;
+    try {
+      while (n < max) {
+        Object o = read0(0);
+        if (o == READ_EOF) break;
+        out[n++] = o;
+      }
+    } catch (RuntimeException e) {
+      throw located(e);
+    }
+    return n;
+  }
+
+  /**
+   * Like {@link #readBatch(Object[], int)}, but conj'es up to {@code max} forms onto {@code out}
+   * and returns the resulting transient, which the caller uses in place of {@code out} as with
+   * any conj. Its count grew by fewer than {@code max} when end of input was reached.
+   */
+  public ITransientVector readBatch(ITransientVector out, int max) throws IOException {
+    checkReadAllowed();
+    try {
+      for (int n = 0; n < max; n++) {
+        Object o = read0(0);
+        if (o == READ_EOF) break;
+        out = (ITransientVector) out.conj(o);
+      }
+    } catch (RuntimeException e) {
+      throw located(e);
+    }
+    return out;
+  }
+
+  /**
+   * A stream of the top-level forms of {@code source}. It splits at top-level form boundaries,
+   * so {@code .parallel()} reads disjoint ranges on several cores (see {@link FormSpliterator}).
+   * Options are captured from the calling thread, since worker threads lack its bindings.
+   */
+  public static Stream<Object> stream(CharSequence source) {
+    return StreamSupport.stream(new FormSpliterator(source, ReaderOptions.fromBindings()), false);
+  }
+
+  /**
+   * A stream of the top-level forms of a UTF-8 file. The file is memory-mapped and decoded
+   * once, then read like {@link #stream(CharSequence)}.
+   */
+  public static Stream<Object> stream(java.nio.file.Path file) throws IOException {
+    try (java.nio.channels.FileChannel ch = java.nio.channels.FileChannel.open(file)) {
+      java.nio.MappedByteBuffer bytes = ch.map(java.nio.channels.FileChannel.MapMode.READ_ONLY, 0, ch.size());
+      return stream(java.nio.charset.StandardCharsets.UTF_8.decode(bytes));
+    }
+  }
+
+  /** A sequential stream of the forms of {@code r}; closing the stream closes {@code r}. */
+  public static Stream<Object> stream(java.io.Reader r) {
+    return StreamSupport.stream(new FormSpliterator(r, ReaderOptions.fromBindings()), false)
+        .onClose(() -> {
+          try {
+            r.close();
+          } catch (IOException e) {
+            throw new java.io.UncheckedIOException(e);
+          }
+        });
+  }
+
+  /**
+   * Pushes the chars this reader has buffered but not consumed back onto {@code r}, and drops
+   * them from this reader. With a chunk size of 1 at most one char is ever buffered past the
+   * last form, so a one-form read leaves a plain {@link java.io.PushbackReader} positioned
+   * exactly as {@code LispReader} would.
+   */
+  public void unreadBuffered(java.io.PushbackReader r) throws IOException {
+    Buffer b = buffer;
+    if (b.posEnd > b.pos) r.unread(b.buffer, b.pos, b.posEnd - b.pos);
+    b.pos = b.posEnd;
+  }
+
+  // LispReader guards the top of read() the same way: :unknown blocks everything.
+  private void checkReadAllowed() {
+    if (opts.readEval == UNKNOWN)
       throw new RuntimeException("Reading disallowed - *read-eval* bound to :unknown");
-    Object o = read0(0);
-    return o == READ_EOF ? EOF : o;
+  }
+
+  /**
+   * Starts recording the source span of every form read from here on into a
+   * {@link SpanTable} (created on the first call), with no metadata maps built. Returns it.
+   */
+  public SpanTable trackSpans() {
+    if (spans == null) spans = new SpanTable();
+    return spans;
+  }
+
+  public ReaderOptions getOptions() {
+    return opts;
+  }
+
+  public void setOptions(ReaderOptions opts) {
+    this.opts = opts;
+  }
+
+  /** Re-captures the current Var bindings, for a long-lived reader whose bindings changed. */
+  public void refreshOptions() {
+    this.opts = ReaderOptions.fromBindings();
   }
 
   // Reads one form. `returnOn` is the closing delimiter to stop on (0 = none): on it, consumes
@@ -107,63 +323,116 @@ public class Reader2 {
   // comments and #_ discards (which produce no value), matching LispReader's read loop.
   private Object read0(int returnOn) throws IOException {
     while (true) {
+      if (pendingForms != null && !pendingForms.isEmpty())
+        return pendingForms.remove(pendingForms.size() - 1);
       int c1 = skipWhitespace();
       if (c1 == -1) return READ_EOF;
       if (returnOn != 0 && c1 == returnOn) { buffer.read(); return READ_FINISHED; }
-      if (Character.isDigit(c1)) return readNumber();
+      if (spans == null) {
+        Object o = read1(c1);
+        if (o == SKIP) continue;
+        return o;
+      }
+      long start = buffer.base + buffer.pos;
+      Object o = read1(c1);
+      if (o == SKIP) continue;
+      if (o != null) spans.add(o, start, buffer.base + buffer.pos);
+      return o;
+    }
+  }
+
+  // Reads the form starting with c1 (not yet consumed), or returns SKIP for a comment.
+  private Object read1(int c1) throws IOException {
+    if (Character.isDigit(c1)) return readNumber();
+    switch (c1) {
+      case '"':  buffer.read(); return readStringForm();
+      case '\\': buffer.read(); return readCharacterForm();
+      case '(':  buffer.read(); return readList();
+      case '[':  buffer.read(); return readVector();
+      case '{':  buffer.read(); return readMap();
+      case ')': case ']': case '}':
+        throw new RuntimeException("Unmatched delimiter: " + (char) c1);
+      case ';':  buffer.read(); skipLine(); return SKIP;       // line comment
+      case '#':  return readDispatch();
+      case '^':  buffer.read(); return readMeta();                             // ^meta form
+      default:   break;
+    }
+    if (opts.edn) {
+      // EdnReader has no quote, deref or unquote macros: ' and % start a symbol, the rest throw
+      if (c1 == '@' || c1 == '`' || c1 == '~')
+        throw new RuntimeException("Invalid leading character: " + (char) c1);
+    } else {
       switch (c1) {
-        case '"':  buffer.read(); return readStringForm();
-        case '\\': buffer.read(); return readCharacterForm();
-        case '(':  buffer.read(); return readList();
-        case '[':  buffer.read(); return readVector();
-        case '{':  buffer.read(); return readMap();
-        case ')': case ']': case '}':
-          throw new RuntimeException("Unmatched delimiter: " + (char) c1);
-        case ';':  buffer.read(); skipLine(); continue;         // line comment
-        case '#':  { Object o = readDispatch(); if (o == SKIP) continue; return o; }
-        case '\'': buffer.read(); return RT.list(QUOTE, readForm());              // 'x
-        case '@':  buffer.read(); return RT.list(DEREF, readForm());             // @x
-        case '~':  buffer.read(); return readUnquote();                          // ~x / ~@x
-        case '^':  buffer.read(); return readMeta();                             // ^meta form
-        case '%':  return argEnv != null ? readArg() : readToken();              // %/%n/%& in #(), else symbol
-        case '`':  buffer.read(); return readSyntaxQuote();                      // `form
+        case '\'': buffer.read(); return RT.list(QUOTE, readForm());            // 'x
+        case '@':  buffer.read(); return RT.list(DEREF, readForm());           // @x
+        case '~':  buffer.read(); return readUnquote();                        // ~x / ~@x
+        case '%':  if (argEnv != null) return readArg(); break;                // %/%n/%& in #()
+        case '`':  buffer.read(); return readSyntaxQuote();                    // `form
         default:   break;
       }
-      // Every macro character has an explicit case above, so anything reaching here is a token.
-      if ((c1 == '+' || c1 == '-') && Character.isDigit(peekAt(1))) return readNumber();
-      return readToken();   // symbols, keywords, nil / true / false
     }
+    if ((c1 == '+' || c1 == '-') && Character.isDigit(peekAt(1))) return readNumber();
+    return readToken();   // symbols, keywords, nil / true / false
   }
 
   // Reads forms until the closing `delim`, collecting them. Port of readDelimitedList.
   private ArrayList<Object> readDelimitedList(int delim) throws IOException {
     ArrayList<Object> acc = new ArrayList<>();
-    while (true) {
-      Object form = read0(delim);
-      if (form == READ_EOF) throw new RuntimeException("EOF while reading");
-      if (form == READ_FINISHED) return acc;
-      acc.add(form);
+    delimDepth++;
+    try {
+      while (true) {
+        Object form = read0(delim);
+        if (form == READ_EOF) throw new RuntimeException("EOF while reading");
+        if (form == READ_FINISHED) return acc;
+        acc.add(form);
+      }
+    } finally {
+      delimDepth--;
     }
   }
 
   private Object readList() throws IOException {
+    long start = lineNumbers ? positionAt(buffer.pos - 1) : -1;
     ArrayList<Object> a = readDelimitedList(')');
-    return a.isEmpty() ? PersistentList.EMPTY : PersistentList.create(a);
+    Object ret = a.isEmpty() ? PersistentList.EMPTY : PersistentList.create(a);
+    return start == -1 ? ret : withPosition(ret, start);
   }
 
   private Object readVector() throws IOException {
-    return LazilyPersistentVector.create(readDelimitedList(']'));
+    long start = lineNumbers ? positionAt(buffer.pos - 1) : -1;
+    Object ret = LazilyPersistentVector.create(readDelimitedList(']'));
+    return start == -1 ? ret : withPosition(ret, start);
   }
 
   private Object readMap() throws IOException {
+    long start = lineNumbers ? positionAt(buffer.pos - 1) : -1;
     Object[] a = readDelimitedList('}').toArray();
     if ((a.length & 1) == 1)
       throw new RuntimeException("Map literal must contain an even number of forms");
-    return RT.map(a);                       // RT.map does the duplicate-key check
+    Object ret = RT.map(a);                 // RT.map does the duplicate-key check
+    return start == -1 ? ret : withPosition(ret, start);
   }
 
   private Object readSet() throws IOException {
-    return PersistentHashSet.createWithCheck(readDelimitedList('}'));
+    long start = lineNumbers ? positionAt(buffer.pos - 2) : -1;   // at the '#' of "#{"
+    Object ret = PersistentHashSet.createWithCheck(readDelimitedList('}'));
+    return start == -1 ? ret : withPosition(ret, start);
+  }
+
+  // 1-based line and column of buffer index p, packed as line << 32 | column. Positions are
+  // only ever asked for in increasing order, so each line break is counted once.
+  private long positionAt(int p) {
+    Buffer b = buffer;
+    long line = b.lineAt(p) + 1;
+    return line << 32 | (b.columnAt(p) + 1);
+  }
+
+  // Attaches :line/:column from `start` and :end-line/:end-column from the read position.
+  private Object withPosition(Object form, long start) {
+    long end = positionAt(buffer.pos);
+    return ((IObj) form).withMeta(RT.map(
+        LINE_KEY, (int) (start >>> 32), COLUMN_KEY, (int) start,
+        END_LINE_KEY, (int) (end >>> 32), END_COLUMN_KEY, (int) end));
   }
 
   // Symbols used by the wrapping macros, matching LispReader.
@@ -189,48 +458,13 @@ public class Reader2 {
   private static final Symbol WITH_META = Symbol.intern("clojure.core", "with-meta");
   private static final Keyword LINE_KEY = Keyword.intern(null, "line");
   private static final Keyword COLUMN_KEY = Keyword.intern(null, "column");
+  private static final Keyword END_LINE_KEY = Keyword.intern(null, "end-line");
+  private static final Keyword END_COLUMN_KEY = Keyword.intern(null, "end-column");
 
-  // syntaxQuote defers symbol resolution to Compiler.isSpecial / Compiler.resolveSymbol so that
-  // class mappings, referred vars, and current-ns defaulting are byte-identical to Clojure's.
-  // Both are package-private, so reflect them once.
-  private static final java.lang.reflect.Method IS_SPECIAL;
-  private static final java.lang.reflect.Method RESOLVE_SYMBOL;
-  static {
-    try {
-      IS_SPECIAL = clojure.lang.Compiler.class.getDeclaredMethod("isSpecial", Object.class);
-      IS_SPECIAL.setAccessible(true);
-      RESOLVE_SYMBOL = clojure.lang.Compiler.class.getDeclaredMethod("resolveSymbol", Symbol.class);
-      RESOLVE_SYMBOL.setAccessible(true);
-    } catch (NoSuchMethodException e) {
-      throw new ExceptionInInitializerError(e);
-    }
-  }
-
-  private static boolean isSpecial(Object form) {
-    try {
-      return (Boolean) IS_SPECIAL.invoke(null, form);
-    } catch (java.lang.reflect.InvocationTargetException e) {
-      throw sneak(e.getCause());
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  private static Symbol resolveSymbol(Symbol sym) {
-    try {
-      return (Symbol) RESOLVE_SYMBOL.invoke(null, sym);
-    } catch (java.lang.reflect.InvocationTargetException e) {
-      throw sneak(e.getCause());   // propagate Compiler's own exception (e.g. "Unable to resolve")
-    } catch (IllegalAccessException e) {
-      throw new RuntimeException(e);
-    }
-  }
-
-  private static RuntimeException sneak(Throwable t) {
-    if (t instanceof RuntimeException) return (RuntimeException) t;
-    if (t instanceof Error) throw (Error) t;
-    return new RuntimeException(t);
-  }
+  // syntaxQuote defers symbol resolution to Compiler.resolveSymbol so that class mappings,
+  // referred vars, and current-ns defaulting are byte-identical to Clojure's. Created by the
+  // first syntax-quoted symbol; its memo checks the namespace itself, so it survives reset().
+  private SymbolResolver resolver;
 
   // Per-read state for #() arg literals and syntax-quote auto-gensyms; null when not inside the
   // respective macro. These stand in for LispReader's ARG_ENV / GENSYM_ENV thread-local Vars.
@@ -333,9 +567,11 @@ public class Reader2 {
 
   // ---- Syntax-quote `form ------------------------------------------------------------------
   // Port of LispReader.SyntaxQuoteReader. A fresh auto-gensym map is scoped to each backquote,
-  // so nested `...` get independent foo# gensyms. Symbol resolution matches Clojure exactly via
-  // the reflected Compiler.isSpecial / resolveSymbol (the *reader-resolver* path, used only when
-  // a custom resolver is bound, is not reachable through this reader's API, so it is omitted).
+  // so nested `...` get independent foo# gensyms. Symbol resolution matches Clojure exactly:
+  // SymbolResolver checks Compiler.specials directly and calls Compiler.resolveSymbol through a
+  // MethodHandle, memoized per namespace until *ns* or its mappings or aliases change (the
+  // *reader-resolver* path, used only when a custom resolver is bound, is not reachable through
+  // this reader's API, so it is omitted).
   private Object readSyntaxQuote() throws IOException {
     java.util.HashMap<Symbol, Symbol> saved = gensymEnv;
     gensymEnv = new java.util.HashMap<>();
@@ -348,7 +584,7 @@ public class Reader2 {
 
   private Object syntaxQuote(Object form) {
     Object ret;
-    if (isSpecial(form)) {
+    if (SymbolResolver.isSpecial(form)) {
       ret = RT.list(QUOTE, form);
     } else if (form instanceof Symbol) {
       Symbol sym = (Symbol) form;
@@ -364,18 +600,14 @@ public class Reader2 {
         sym = gs;
       } else if (sym.getNamespace() == null && sym.getName().endsWith(".")) {
         Symbol csym = Symbol.intern(null, sym.getName().substring(0, sym.getName().length() - 1));
-        csym = resolveSymbol(csym);
+        csym = resolver().resolve(csym);
         sym = Symbol.intern(null, csym.getName().concat("."));
       } else if (sym.getNamespace() == null && sym.getName().startsWith(".")) {
         // instance method name: leave as-is (quoted below)
       } else {
-        Object maybeClass = null;
-        if (sym.getNamespace() != null)
-          maybeClass = currentNS().getMapping(Symbol.intern(null, sym.getNamespace()));
-        if (maybeClass instanceof Class)
-          sym = Symbol.intern(((Class) maybeClass).getName(), sym.getName());
-        else
-          sym = resolveSymbol(sym);
+        // Uses the live *ns* rather than the options snapshot, because Compiler.resolveSymbol
+        // does too and the two must agree.
+        sym = resolver().resolve(sym);
       }
       ret = RT.list(QUOTE, sym);
     } else if (isUnquote(form)) {
@@ -385,6 +617,8 @@ public class Reader2 {
     } else if (form instanceof IPersistentCollection) {
       if (form instanceof IRecord) {
         ret = form;
+      } else if (opts.compactSyntaxQuote) {
+        ret = syntaxQuoteCompact(form);
       } else if (form instanceof IPersistentMap) {
         IPersistentVector keyvals = flattenMap(form);
         ret = RT.list(APPLY, HASHMAP, RT.list(SEQ, RT.cons(CONCAT, sqExpandList(keyvals.seq()))));
@@ -407,13 +641,112 @@ public class Reader2 {
     }
 
     if (form instanceof IObj && RT.meta(form) != null) {
-      IPersistentMap newMeta = ((IObj) form).meta().without(LINE_KEY).without(COLUMN_KEY);
-      if (newMeta.count() > 0)
-        return RT.list(WITH_META, ret, syntaxQuote(((IObj) form).meta()));
+      IPersistentMap newMeta = ((IObj) form).meta().without(LINE_KEY).without(COLUMN_KEY)
+          .without(END_LINE_KEY).without(END_COLUMN_KEY);
+      if (newMeta.count() > 0) {
+        Object meta = syntaxQuote(((IObj) form).meta());
+        if (opts.compactSyntaxQuote && isConstant(ret) && isConstant(meta)
+            && constantValue(ret) instanceof IObj)
+          return RT.list(QUOTE, ((IObj) constantValue(ret)).withMeta((IPersistentMap) constantValue(meta)));
+        return RT.list(WITH_META, ret, meta);
+      }
     }
     return ret;
   }
 
+  // The compact expansion of a collection (see ReaderOptions.withCompactSyntaxQuote).
+  private Object syntaxQuoteCompact(Object form) {
+    Symbol ctor;
+    ISeq items;
+    if (form instanceof IPersistentMap) { ctor = HASHMAP; items = flattenMap(form).seq(); }
+    else if (form instanceof IPersistentVector) { ctor = VECTOR; items = ((IPersistentVector) form).seq(); }
+    else if (form instanceof IPersistentSet) { ctor = HASHSET; items = ((IPersistentSet) form).seq(); }
+    else if (form instanceof ISeq || form instanceof IPersistentList) { ctor = LIST; items = RT.seq(form); }
+    else throw new UnsupportedOperationException("Unknown Collection type");
+
+    ArrayList<Object> exprs = new ArrayList<>();
+    java.util.BitSet spliced = null;        // positions in exprs of the ~@ forms
+    boolean constant = true;
+    for (; items != null; items = items.next()) {
+      Object item = items.first();
+      Object e;
+      if (isUnquoteSplicing(item)) {
+        e = RT.second(item);
+        if (spliced == null) spliced = new java.util.BitSet();
+        spliced.set(exprs.size());
+        constant = false;
+      } else {
+        e = isUnquote(item) ? RT.second(item) : syntaxQuote(item);
+        constant &= isConstant(e);
+      }
+      exprs.add(e);
+    }
+
+    if (spliced == null) {
+      if (constant) {                       // nothing evaluates: quote the whole value
+        ArrayList<Object> vals = new ArrayList<>(exprs.size());
+        for (Object e : exprs) vals.add(constantValue(e));
+        Object value;
+        if (ctor == HASHMAP) value = clojure.lang.PersistentHashMap.create(vals.toArray());
+        else if (ctor == VECTOR) value = LazilyPersistentVector.create(vals);
+        else if (ctor == HASHSET) value = PersistentHashSet.create(vals);
+        else value = vals.isEmpty() ? PersistentList.EMPTY : PersistentList.create(vals);
+        return RT.list(QUOTE, value);
+      }
+      exprs.add(0, ctor);
+      return PersistentList.create(exprs);
+    }
+
+    // With ~@: (seq (concat ...)), each run of other elements one (quote (...)) or (list ...).
+    ArrayList<Object> parts = new ArrayList<>();
+    parts.add(CONCAT);
+    ArrayList<Object> run = new ArrayList<>();
+    boolean runConstant = true;
+    for (int i = 0; i < exprs.size(); i++) {
+      Object e = exprs.get(i);
+      if (spliced.get(i)) {
+        if (!run.isEmpty()) parts.add(runForm(run, runConstant));
+        run.clear();
+        runConstant = true;
+        parts.add(e);
+      } else {
+        run.add(e);
+        runConstant &= isConstant(e);
+      }
+    }
+    if (!run.isEmpty()) parts.add(runForm(run, runConstant));
+    Object seq = RT.list(SEQ, PersistentList.create(parts));
+    return ctor == LIST ? seq : RT.list(APPLY, ctor, seq);
+  }
+
+  private static Object runForm(ArrayList<Object> run, boolean constant) {
+    if (!constant) {
+      ArrayList<Object> call = new ArrayList<>(run.size() + 1);
+      call.add(LIST);
+      call.addAll(run);
+      return PersistentList.create(call);
+    }
+    ArrayList<Object> vals = new ArrayList<>(run.size());
+    for (Object e : run) vals.add(constantValue(e));
+    return RT.list(QUOTE, PersistentList.create(vals));
+  }
+
+  // An expansion that evaluates to itself, or is (quote x).
+  private static boolean isConstant(Object e) {
+    if (e == null || e instanceof Keyword || e instanceof Number || e instanceof Character
+        || e instanceof String || e instanceof Boolean) return true;
+    return e instanceof ISeq && QUOTE.equals(RT.first(e)) && RT.next(e) != null && RT.next(RT.next(e)) == null;
+  }
+
+  private static Object constantValue(Object e) {
+    return e instanceof ISeq ? RT.second(e) : e;
+  }
+
+  private SymbolResolver resolver() {
+    SymbolResolver r = resolver;
+    return r != null ? r : (resolver = new SymbolResolver());
+  }
+
   private ISeq sqExpandList(ISeq seq) {
     PersistentVector ret = PersistentVector.EMPTY;
     for (; seq != null; seq = seq.next()) {
@@ -449,13 +782,16 @@ public class Reader2 {
     buffer.read();                          // consume '#'
     int ch = buffer.peek();                 // dispatch char (consumed below, except for tags)
     if (ch == -1) throw new RuntimeException("EOF while reading character");
+    if (opts.edn && !isEdnDispatch(ch)) throw new RuntimeException("No dispatch macro for: " + (char) ch);
     switch (ch) {
       case '{': buffer.read(); return readSet();
       case '(': buffer.read(); return readFn();                          // #(...) anonymous fn
       case '_': {                           // discard the next form
         buffer.read();
+        int mark = spans == null ? 0 : spans.size();
         Object discarded = read0(0);
         if (discarded == READ_EOF) throw new RuntimeException("EOF while reading");
+        if (spans != null) spans.truncate(mark);
         return SKIP;
       }
       case '!': buffer.read(); skipLine(); return SKIP;                 // shebang line comment
@@ -463,11 +799,11 @@ public class Reader2 {
       case '"': buffer.read(); return readRegex();                      // #"..." regex
       case '#': buffer.read(); return readSymbolicValue();              // ##Inf / ##-Inf / ##NaN
       case '<': buffer.read(); throw new RuntimeException("Unreadable form");
-      case '?': buffer.read(); throw new RuntimeException("Conditional read not allowed");
+      case '?': buffer.read(); return readConditional();               // #?(...) / #?@(...)
       case '=': {                             // #= read-eval
         buffer.read();
         // EvalReader checks *read-eval* before reading its form; false/nil throws exactly this.
-        if (!RT.booleanCast(READ_EVAL.deref()))
+        if (!RT.booleanCast(opts.readEval))
           throw new RuntimeException("EvalReader not allowed when *read-eval* is false.");
         // Evaluating would require the compiler; that is intentionally out of scope. The
         // *read-eval* gating above is the security-relevant behaviour and matches LispReader.
@@ -481,23 +817,38 @@ public class Reader2 {
     }
   }
 
+  // The dispatch macros EdnReader has: #{}, #_, #:ns{}, ##Inf and friends, #< and tags.
+  private static boolean isEdnDispatch(int ch) {
+    return ch == '{' || ch == '_' || ch == ':' || ch == '#' || ch == '<' || Character.isLetter(ch);
+  }
+
   // #"..." — chars up to the closing quote; a backslash keeps the next char literally (so \d
-  // stays \d for Pattern.compile). Port of LispReader.RegexReader.
+  // stays \d for Pattern.compile). Port of LispReader.RegexReader. The literal is left in
+  // place in the buffer (kept contiguous across refills, as in scanString) and looked up in the
+  // shared RegexCache, so a repeated pattern costs a scan and a compare, not a compile.
   private Object readRegex() throws IOException {
     Buffer b = buffer;
-    StringBuilder sb = new StringBuilder();
+    b.startNewToken();
+    int p = b.pos;
+    char[] a = b.buffer;
+    boolean escaped = false;
     while (true) {
-      int ch = b.read();
-      if (ch == '"') break;
-      if (ch == -1) throw new RuntimeException("EOF while reading regex");
-      sb.append((char) ch);
-      if (ch == '\\') {
-        int ch2 = b.read();
-        if (ch2 == -1) throw new RuntimeException("EOF while reading regex");
-        sb.append((char) ch2);
+      char c = a[p];
+      if (c == Buffer.SENTINEL && p == b.posEnd) {
+        b.pos = p;
+        if (!b.refill()) throw new RuntimeException("EOF while reading regex");
+        a = b.buffer;
+        p = b.pos;
+        continue;
       }
+      if (escaped) escaped = false;
+      else if (c == '\\') escaped = true;
+      else if (c == '"') break;
+      p++;
     }
-    return java.util.regex.Pattern.compile(sb.toString());
+    b.pos = p + 1;                          // consume closing quote
+    int start = b.getTokenStart();
+    return RegexCache.SHARED.get(a, start, p - start);
   }
 
   // ## symbolic values. Port of LispReader.SymbolicValueReader.
@@ -510,30 +861,302 @@ public class Reader2 {
     throw new RuntimeException("Unknown symbolic value: ##" + form);
   }
 
+  // Reader conditional state. Forms spliced by #?@ wait in pendingForms, last one first, and
+  // read0 hands them out before reading on; delimDepth tells a splice at the top level apart;
+  // preserveDepth > 0 while reading a conditional in :preserve mode.
+  private ArrayList<Object> pendingForms;
+  private int delimDepth;
+  private int preserveDepth;
+
+  private static final Keyword ALLOW = Keyword.intern(null, "allow");
+  private static final Keyword PRESERVE = Keyword.intern(null, "preserve");
+  private static final Keyword DEFAULT_FEATURE = Keyword.intern(null, "default");
+  private static final Keyword ELSE_FEATURE = Keyword.intern(null, "else");
+  private static final Keyword NONE_FEATURE = Keyword.intern(null, "none");
+  private static final Object NO_MATCH = new Object();
+
+  // #? / #?@ — '#?' consumed. Port of LispReader.ConditionalReader.
+  private Object readConditional() throws IOException {
+    Object mode = opts.readCond;
+    if (!ALLOW.equals(mode) && !PRESERVE.equals(mode))
+      throw new RuntimeException("Conditional read not allowed");
+    Buffer b = buffer;
+    int ch = b.read();
+    if (ch == -1) throw new RuntimeException("EOF while reading character");
+    boolean splicing = ch == '@';
+    if (splicing) ch = b.read();
+    while (ch != -1 && isWhitespace(ch)) ch = b.read();
+    if (ch == -1) throw new RuntimeException("EOF while reading character");
+    if (ch != '(') throw new RuntimeException("read-cond body must be a list");
+    if (PRESERVE.equals(mode)) {
+      preserveDepth++;
+      try {
+        return ReaderConditional.create(readList(), splicing);
+      } finally {
+        preserveDepth--;
+      }
+    }
+    boolean topLevel = delimDepth == 0;
+    // NO_MATCH until a feature matches, as LispReader's READ_STARTED: a branch may yield nil.
+    Object result = NO_MATCH;
+    while (true) {
+      if (result == NO_MATCH) {
+        Object feature = read0(')');
+        if (feature == READ_EOF) throw new RuntimeException("EOF while reading");
+        if (feature == READ_FINISHED) break;
+        if (ELSE_FEATURE.equals(feature) || NONE_FEATURE.equals(feature))
+          throw new RuntimeException("Feature name " + feature + " is reserved.");
+        if (!(feature instanceof Keyword)) throw new RuntimeException("Feature should be a keyword: " + feature);
+        if (DEFAULT_FEATURE.equals(feature) || opts.features != null && opts.features.contains(feature)) {
+          Object form = read0(')');
+          if (form == READ_EOF) throw new RuntimeException("EOF while reading");
+          if (form == READ_FINISHED) throw new RuntimeException("read-cond requires an even number of forms.");
+          result = form;
+        }
+      }
+      // The form after a feature that didn't match, and every form after the match, is only
+      // scanned over: no objects, no interning, no data readers.
+      int skipped = skipForm(')');
+      if (skipped == SKIPPED_EOF) throw new RuntimeException("EOF while reading");
+      if (skipped == SKIPPED_CLOSE) break;
+    }
+    if (result == NO_MATCH) return SKIP;
+    if (!splicing) return result;
+    if (!(result instanceof java.util.List))
+      throw new RuntimeException("Spliced form list in read-cond-splicing must implement java.util.List");
+    if (topLevel) throw new RuntimeException("Reader conditional splicing not allowed at the top level.");
+    java.util.List<?> forms = (java.util.List<?>) result;
+    if (pendingForms == null) pendingForms = new ArrayList<>();
+    for (int i = forms.size() - 1; i >= 0; i--) pendingForms.add(forms.get(i));
+    return SKIP;
+  }
+
+  // skipForm results.
+  private static final int SKIPPED_FORM = 0;
+  private static final int SKIPPED_CLOSE = 1;     // the closing delimiter came first (consumed)
+  private static final int SKIPPED_EOF = 2;
+
+  // Passes over one form, and the comments and #_ discards before it, without reading it.
+  // Malformed text is only rejected as far as finding the form's end requires.
+  private int skipForm(int close) throws IOException {
+    Buffer b = buffer;
+    while (true) {
+      int c = skipWhitespace();
+      if (c == -1) return SKIPPED_EOF;
+      b.read();
+      if (c == close) return SKIPPED_CLOSE;
+      switch (c) {
+        case '"': skipString("EOF while reading string"); return SKIPPED_FORM;
+        case ';': skipLine(); continue;
+        case '(': skipDelimited(')'); return SKIPPED_FORM;
+        case '[': skipDelimited(']'); return SKIPPED_FORM;
+        case '{': skipDelimited('}'); return SKIPPED_FORM;
+        case ')': case ']': case '}':
+          throw new RuntimeException("Unmatched delimiter: " + (char) c);
+        case '\\':
+          if (b.read() == -1) throw new RuntimeException("EOF while reading character");
+          skipToken(false);
+          return SKIPPED_FORM;
+        case '\'': case '`': case '@': skipRequired(); return SKIPPED_FORM;
+        case '~':
+          if (b.peek() == '@') b.read();
+          skipRequired();
+          return SKIPPED_FORM;
+        case '^': skipRequired(); skipRequired(); return SKIPPED_FORM;
+        case '#': break;
+        default:
+          skipToken(Character.isDigit(c) || (c == '+' || c == '-') && Character.isDigit(b.peek()));
+          return SKIPPED_FORM;
+      }
+      int d = b.read();
+      switch (d) {
+        case -1: throw new RuntimeException("EOF while reading character");
+        case '{': skipDelimited('}'); return SKIPPED_FORM;
+        case '(': skipDelimited(')'); return SKIPPED_FORM;
+        case '"': skipString("EOF while reading regex"); return SKIPPED_FORM;
+        case '!': skipLine(); continue;
+        case '_': skipRequired(); continue;
+        case '\'': skipRequired(); return SKIPPED_FORM;
+        case '#': skipToken(false); return SKIPPED_FORM;
+        case '^': skipRequired(); skipRequired(); return SKIPPED_FORM;
+        case '<': throw new RuntimeException("Unreadable form");
+        case '=':
+          if (!RT.booleanCast(opts.readEval))
+            throw new RuntimeException("EvalReader not allowed when *read-eval* is false.");
+          skipRequired();
+          return SKIPPED_FORM;
+        case '?': {
+          if (b.peek() == '@') b.read();
+          int e = skipWhitespace();
+          if (e == -1) throw new RuntimeException("EOF while reading character");
+          if (e != '(') throw new RuntimeException("read-cond body must be a list");
+          b.read();
+          skipDelimited(')');
+          return SKIPPED_FORM;
+        }
+        case ':': skipToken(false); skipRequired(); return SKIPPED_FORM;   // #:ns{...}
+        default:
+          if (Character.isLetter(d)) { skipToken(false); skipRequired(); return SKIPPED_FORM; }   // #tag form
+          throw new UnsupportedOperationException(
+              "Reader2 does not yet support the dispatch macro '#" + (char) d + "'");
+      }
+    }
+  }
+
+  private void skipRequired() throws IOException {
+    if (skipForm(-2) == SKIPPED_EOF) throw new RuntimeException("EOF while reading");
+  }
+
+  private void skipDelimited(int close) throws IOException {
+    while (true) {
+      int r = skipForm(close);
+      if (r == SKIPPED_EOF) throw new RuntimeException("EOF while reading");
+      if (r == SKIPPED_CLOSE) return;
+    }
+  }
+
+  // Number tokens end at any macro char, other tokens at a terminating one, as in read1.
+  private void skipToken(boolean number) throws IOException {
+    Buffer b = buffer;
+    while (true) {
+      int c = b.peek();
+      if (c == -1 || isWhitespace(c) || (number ? isMacro(c) : isTerminatingMacro(c))) return;
+      b.read();
+    }
+  }
+
+  private void skipString(String eofMessage) throws IOException {
+    Buffer b = buffer;
+    while (true) {
+      int c = b.read();
+      if (c == '"') return;
+      if (c == -1 || c == '\\' && b.read() == -1) throw new RuntimeException(eofMessage);
+    }
+  }
+
   // #tag form — reads the tag symbol and a form, then applies the matching data reader.
   private Object readTagged() throws IOException {
     Object tag = readForm();
     if (!(tag instanceof Symbol)) throw new RuntimeException("Reader tag must be a symbol");
+    // Inside a preserved conditional, tags are kept as data, as LispReader does.
+    if (preserveDepth > 0) return TaggedLiteral.create((Symbol) tag, readForm());
+    if (rawReaders != null) {
+      RawDataReader raw = rawReaders.get(tag);
+      if (raw != null) return readRawTagged(raw);
+    }
     Object form = readForm();
-    IFn reader = dataReaderFor((Symbol) tag);
+    // As in LispReader, a tag whose *name* contains '.' is a record or class literal, whatever
+    // data readers are registered.
+    if (((Symbol) tag).getName().contains(".")) return readRecord((Symbol) tag, form);
+    IFn reader = opts.dataReaderFor(tag);
     if (reader != null) return reader.invoke(form);
-    // No registered reader. Clojure routes tags whose *name* contains '.' to record
-    // construction (unsupported here); only plain tags fall back to *default-data-reader-fn*,
-    // called as (f tag form). Guarding on the dot keeps dotted tags from wrongly hitting it.
-    if (!((Symbol) tag).getName().contains(".")) {
-      IFn defaultReader = (IFn) RT.var("clojure.core", "*default-data-reader-fn*").deref();
-      if (defaultReader != null) return defaultReader.invoke(tag, form);
-    }
+    // Then *default-data-reader-fn*, called as (f tag form).
+    IFn defaultReader = opts.defaultReader;
+    if (defaultReader != null) return defaultReader.invoke(tag, form);
     throw new RuntimeException("No reader function for tag " + tag);
   }
 
+  // Classes of the record literals read so far, with their cached call sites. Null until the
+  // first one; dropped by reset(), so a redefined record is picked up by the next input.
+  private java.util.HashMap<Symbol, RecordConstructor> recordConstructors;
+
+  // #my.ns.Rec{...} / #my.ns.Rec[...]. Port of LispReader.CtorReader.readRecord.
+  private Object readRecord(Symbol name, Object form) {
+    if (!RT.booleanCast(opts.readEval))
+      throw new RuntimeException("Record construction syntax can only be used when *read-eval* == true");
+    if (recordConstructors == null) recordConstructors = new java.util.HashMap<>();
+    RecordConstructor ctor = recordConstructors.get(name);
+    if (ctor == null) {
+      ctor = new RecordConstructor(RT.classForNameNonLoading(name.toString()));
+      recordConstructors.put(name, ctor);
+    }
+    if (form instanceof IPersistentVector) return ctor.construct((IPersistentVector) form);
+    if (!(form instanceof IPersistentMap))
+      throw new RuntimeException("Unreadable constructor form starting with \"#" + name + "\"");
+    IPersistentMap vals = (IPersistentMap) form;
+    for (ISeq s = RT.keys(vals); s != null; s = s.next()) {
+      if (!(s.first() instanceof Keyword))
+        throw new RuntimeException(
+            "Unreadable defrecord form: key must be of type clojure.lang.Keyword, got " + s.first());
+    }
+    return ctor.create(vals);
+  }
+
+  // Tag -> raw data reader, consulted by readTagged before the data reader Vars. Null until
+  // the first registration, so readers without raw tags pay a single null check per tag.
+  private java.util.HashMap<Symbol, RawDataReader> rawReaders;
+
+  /** Registers a {@link RawDataReader} for {@code tag}, taking precedence over data readers. */
+  public void registerRawReader(Symbol tag, RawDataReader reader) {
+    if (rawReaders == null) rawReaders = new java.util.HashMap<>();
+    rawReaders.put(tag, reader);
+  }
+
+  // The tag has been read and has a raw reader. Hands it the literal's chars in place (a string's
+  // decoded content, or a token), or a cursor over a collection's elements.
+  private Object readRawTagged(RawDataReader raw) throws IOException {
+    Buffer b = buffer;
+    int c = skipWhitespace();
+    if (c == -1) throw new RuntimeException("EOF while reading");
+    switch (c) {
+      case '"': {
+        b.read();
+        int len = scanString();
+        return raw.readChars(b.buffer, b.getTokenStart(), b.getTokenStart() + len, true);
+      }
+      case '(': case '[': case '{': {
+        b.read();
+        ElementCursor elements = new ElementCursor(c == '(' ? ')' : c == '[' ? ']' : '}');
+        Object ret = raw.readCollection(c, elements);
+        while (elements.hasNext()) elements.next();      // drop what the reader left unread
+        return ret;
+      }
+      default:
+        if (isMacro(c))
+          throw new RuntimeException("Raw data reader needs a string, token or collection, got: " + (char) c);
+        int end = scanToken();
+        return raw.readChars(b.buffer, b.getTokenStart(), end, false);
+    }
+  }
+
+  // Pulls the elements of a collection literal for a RawDataReader, up to its closing delim.
+  private final class ElementCursor implements RawDataReader.Cursor {
+    private final int delim;
+    private Object pending = READ_EOF;                     // READ_EOF = nothing read ahead
+    private boolean done;
+
+    ElementCursor(int delim) {
+      this.delim = delim;
+    }
+
+    @Override
+    public boolean hasNext() throws IOException {
+      if (done) return false;
+      if (pending == READ_EOF) {
+        Object o = read0(delim);
+        if (o == READ_EOF) throw new RuntimeException("EOF while reading");
+        if (o == READ_FINISHED) { done = true; return false; }
+        pending = o;
+      }
+      return true;
+    }
+
+    @Override
+    public Object next() throws IOException {
+      if (!hasNext()) throw new java.util.NoSuchElementException();
+      Object o = pending;
+      pending = READ_EOF;
+      return o;
+    }
+  }
+
   // #:ns{...} / #::{...} / #::alias{...} — the leading "#:" has been consumed. Port of
   // LispReader.NamespaceMapReader. Unqualified keys get the namespace; keys with the "_"
   // namespace become unqualified; already-qualified keys are left alone.
   private Object readNamespaceMap() throws IOException {
     Buffer b = buffer;
     boolean auto = false;
-    if (b.peek() == ':') { b.read(); auto = true; }   // #::
+    if (b.peek() == ':' && !opts.edn) { b.read(); auto = true; }   // #::, which EDN reads as #: with a keyword
 
     Object osym = null;
     int nc = b.peek();
@@ -595,19 +1218,12 @@ public class Reader2 {
     return key;
   }
 
-  // Looks up a data reader: *data-readers* first, then default-data-readers (#inst, #uuid).
-  private static IFn dataReaderFor(Symbol tag) {
-    Object r = RT.get(RT.var("clojure.core", "*data-readers*").deref(), tag);
-    if (r == null) r = RT.get(RT.var("clojure.core", "default-data-readers").deref(), tag);
-    return (IFn) r;
-  }
-
-  // ^meta form. Port of LispReader.MetaReader (without source line/column, which RT.readString
-  // also omits for a non-line-numbering reader).
+  // ^meta form. Port of LispReader.MetaReader, including its line-numbering case.
   private static final Keyword TAG_KEY = Keyword.intern(null, "tag");
   private static final Keyword PARAM_TAGS_KEY = Keyword.intern(null, "param-tags");
 
   private Object readMeta() throws IOException {
+    long start = lineNumbers ? positionAt(buffer.pos - 1) : -1;   // at the '^'
     Object meta = readForm();
     if (meta instanceof Symbol || meta instanceof String)
       meta = RT.map(TAG_KEY, meta);
@@ -621,6 +1237,9 @@ public class Reader2 {
     Object o = readForm();
     if (!(o instanceof IMeta))
       throw new IllegalArgumentException("Metadata can only be applied to IMetas");
+    // As in LispReader, a seq's :line/:column become those of the '^'.
+    if (start != -1 && o instanceof ISeq)
+      meta = ((IPersistentMap) meta).assoc(LINE_KEY, (int) (start >>> 32)).assoc(COLUMN_KEY, (int) start);
     if (o instanceof IReference) {
       ((IReference) o).resetMeta((IPersistentMap) meta);
       return o;
@@ -694,6 +1313,8 @@ public class Reader2 {
     b.startNewToken();
     // Scan the token directly over the backing array, stopping at whitespace, a macro
     // character, or end of input (matching LispReader.readNumber's termination).
+    // In EDN mode the token runs on through ' % @ ` ~, which are not EdnReader macros.
+    boolean[] macro = opts.edn ? EDN_MACRO : MACRO;
     int p = b.pos;
     char[] a = b.buffer;
     while (true) {
@@ -705,7 +1326,7 @@ public class Reader2 {
         p = b.pos;                                    // may have shifted (compaction)
         continue;
       }
-      if (isWhitespace(c) || isMacro(c)) break;
+      if (isWhitespace(c) || c < 128 && macro[c]) break;
       p++;
     }
     b.pos = p;
@@ -745,11 +1366,54 @@ public class Reader2 {
       p++;
     }
     b.pos = p;
-    return interpretToken(a, ts, p, special);
+    if (opts.edn) checkEdnConstituent(a[p]);
+    Object o = interpretToken(a, ts, p, special);
+    if (lineNumbers && o instanceof Symbol) {
+      long start = positionAt(ts);
+      o = withPosition(o, start);
+    }
+    return o;
+  }
+
+  // Scans a token (symbol/keyword/number text) without interpreting it. The token is left at
+  // [tokenStart, end) in the buffer; returns end.
+  private int scanToken() throws IOException {
+    Buffer b = buffer;
+    b.startNewToken();
+    int p = b.pos;
+    char[] a = b.buffer;
+    while (true) {
+      char c = a[p];
+      if (c == Buffer.SENTINEL && p == b.posEnd) {
+        b.pos = p;
+        if (!b.refill()) { p = b.posEnd; break; }
+        a = b.buffer;
+        p = b.pos;
+        continue;
+      }
+      if (isWhitespace(c) || isTerminatingMacro(c)) break;
+      p++;
+    }
+    b.pos = p;
+    return p;
+  }
+
+  // A token ended at a terminating macro of LispReader's that EdnReader would have kept
+  // reading, and then rejected. `c` is the char after the token (SENTINEL at end of input).
+  private static void checkEdnConstituent(char c) {
+    if (c == '@' || c == '`' || c == '~')
+      throw new RuntimeException("Invalid constituent character: " + c);
   }
 
   // Reads a string form (opening quote already consumed). Port of LispReader.StringReader.
   private Object readStringForm() throws IOException {
+    int len = scanString();
+    return new String(buffer.buffer, buffer.getTokenStart(), len);
+  }
+
+  // Scans a string (opening quote already consumed) and consumes the closing quote. The decoded
+  // content is left in the buffer at [tokenStart, tokenStart + length); returns the length.
+  private int scanString() throws IOException {
     Buffer b = buffer;
     b.startNewToken();
     // Fast path: no escapes. The content stays contiguous in the buffer across refills,
@@ -766,9 +1430,8 @@ public class Reader2 {
         continue;
       }
       if (c == '"') {
-        String s = new String(a, b.getTokenStart(), p - b.getTokenStart());
         b.pos = p + 1;               // consume closing quote
-        return s;
+        return p - b.getTokenStart();
       }
       if (c == '\\') break;          // an escape: switch to the in-place decode path
       p++;
@@ -783,7 +1446,7 @@ public class Reader2 {
     while (true) {
       int ch = b.read();
       if (ch == '"')
-        return new String(b.buffer, b.getTokenStart(), wOff);
+        return wOff;
       if (ch == -1)
         throw new RuntimeException("EOF while reading string");
       if (ch == '\\')
@@ -866,6 +1529,7 @@ public class Reader2 {
       p++;
     }
     b.pos = p;
+    if (opts.edn) checkEdnConstituent(a[p]);
     return interpretCharacter(new String(a, b.getTokenStart(), p - b.getTokenStart()));
   }
 
@@ -942,40 +1606,24 @@ public class Reader2 {
     throw new RuntimeException("Invalid token: " + s);
   }
 
-  // Per-reader cache from a token's char range to its interned Symbol/Keyword, so a repeated
-  // plain token (extremely common in real code) skips the String allocation and the
-  // Symbol/Keyword intern. Lazily allocated; a hash collision just recomputes (still correct).
-  // Keyed on the whole range including any leading ':', so symbols and keywords never collide.
-  private char[][] tokKey;
-  private Object[] tokVal;
+  // Cache of interned plain tokens (see TokenCache). Lazily allocated per reader, or shared
+  // between readers with shareTokens.
+  private TokenCache tokens;
   private int tokSeen;
-  private static final int TOK_MASK = 1023;
+  private static final int TOK_CACHE_SIZE = 1024;
   private static final int TOK_CACHE_AFTER = 32;   // don't allocate the cache for small reads
 
   private Object internPlain(char[] a, int start, int len, boolean keyword) {
-    char[][] keys = tokKey;
-    if (keys == null) {
+    if (spans != null && !keyword)          // a fresh Symbol per occurrence, so spans stay exact
+      return Symbol.intern(new String(a, start, len));
+    TokenCache t = tokens;
+    if (t == null) {
       if (++tokSeen <= TOK_CACHE_AFTER)
         return keyword ? Keyword.intern(Symbol.intern(new String(a, start + 1, len - 1)))
                        : Symbol.intern(new String(a, start, len));
-      keys = tokKey = new char[TOK_MASK + 1][];
-      tokVal = new Object[TOK_MASK + 1];
-    }
-    int h = 0;
-    for (int i = 0; i < len; i++) h = h * 31 + a[start + i];
-    int idx = h & TOK_MASK;
-    char[] k = keys[idx];
-    if (k != null && k.length == len) {
-      int i = 0;
-      while (i < len && k[i] == a[start + i]) i++;
-      if (i == len) return tokVal[idx];
-    }
-    Object v = keyword
-        ? Keyword.intern(Symbol.intern(new String(a, start + 1, len - 1)))
-        : Symbol.intern(new String(a, start, len));
-    keys[idx] = java.util.Arrays.copyOfRange(a, start, start + len);
-    tokVal[idx] = v;
-    return v;
+      t = tokens = new TokenCache(TOK_CACHE_SIZE);
+    }
+    return t.intern(a, start, len, keyword);
   }
 
   // Hand-rolled equivalent of LispReader.matchSymbol (Clojure 1.12.5), avoiding a regex on
@@ -987,7 +1635,7 @@ public class Reader2 {
   private static final int SYM_NS_PRESENT = 1;      // group1 (namespace) present
   private static final int SYM_NS_COLON_SLASH = 2;  // group1 ends with ":/"
 
-  private static Object matchSymbol(String s) {
+  private Object matchSymbol(String s) {
     int n = s.length();
     // symbolPat's leading [:]? is greedy: try consuming a leading ':' first, then not.
     int r = (s.charAt(0) == ':') ? symMatch(s, 1) : SYM_NO_MATCH;
@@ -1002,6 +1650,7 @@ public class Reader2 {
           || s.indexOf("::", 1) != -1)
         return null;
       if (n >= 2 && s.charAt(0) == ':' && s.charAt(1) == ':') {
+        if (opts.edn) return null;                    // EDN has no auto-resolved keywords
         // ::-autoresolve, matching LispReader's null-Resolver path (as used by RT.readString):
         // ::ns/name resolves ns as an ALIAS of the current namespace only (no Namespace/find);
         // ::name resolves against the current namespace itself.
@@ -1070,8 +1719,8 @@ public class Reader2 {
     return SYM_NO_MATCH;
   }
 
-  private static Namespace currentNS() {
-    return (Namespace) RT.var("clojure.core", "*ns*").deref();
+  private Namespace currentNS() {
+    return opts.ns;
   }
 
   // Classifies and parses a number token directly, without regex, for the common
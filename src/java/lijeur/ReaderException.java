@@ -15,6 +15,11 @@ public class ReaderException extends RuntimeException {
     this.column = column;
   }
 
+  public ReaderException(String message, String file, int line, int column, Throwable cause) {
+    this(message, file, line, column);
+    initCause(cause);
+  }
+
   public String getFile() {
     return file;
   }
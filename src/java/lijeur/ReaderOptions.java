@@ -0,0 +1,156 @@
+package lijeur;
+
+import clojure.lang.IFn;
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentSet;
+import clojure.lang.Keyword;
+import clojure.lang.Namespace;
+import clojure.lang.RT;
+import clojure.lang.Var;
+
+/**
+ * An immutable snapshot of everything {@link Reader2} would otherwise look up through dynamic
+ * Vars on its hot path: data readers, the default data reader fn, the EOF value,
+ * {@code *read-eval*}, the namespace {@code ::keyword}s and {@code #::{}} maps resolve
+ * against, and the reader conditional mode and features. A reader captures one at
+ * construction, so reading a form never derefs a Var; {@link Reader2#refreshOptions()}
+ * re-captures the bindings for long-lived readers.
+ *
+ * <p>{@link #fromBindings()} mirrors what {@code LispReader} sees; {@link #fromMap} takes a
+ * {@code clojure.edn/read} style opts map. {@link #withEdn} restricts the syntax to EDN's.
+ */
+public final class ReaderOptions {
+
+  private static final Var DATA_READERS = RT.var("clojure.core", "*data-readers*");
+  private static final Var DEFAULT_DATA_READERS = RT.var("clojure.core", "default-data-readers");
+  private static final Var DEFAULT_DATA_READER_FN = RT.var("clojure.core", "*default-data-reader-fn*");
+  private static final Var READ_EVAL = RT.var("clojure.core", "*read-eval*");
+
+  private static final Keyword READERS_KEY = Keyword.intern(null, "readers");
+  private static final Keyword DEFAULT_KEY = Keyword.intern(null, "default");
+  private static final Keyword EOF_KEY = Keyword.intern(null, "eof");
+  private static final Keyword READ_EVAL_KEY = Keyword.intern(null, "read-eval");
+  private static final Keyword READ_COND_KEY = Keyword.intern(null, "read-cond");
+  private static final Keyword FEATURES_KEY = Keyword.intern(null, "features");
+  private static final Keyword PLATFORM_FEATURE = Keyword.intern(null, "clj");
+
+  // tag -> IFn, consulted first; then the built-in #inst / #uuid readers
+  final Object readers;
+  final Object defaultReaders;
+  // (f tag form) for tags with no reader, or null
+  final IFn defaultReader;
+  // returned by read() at end of input
+  final Object eof;
+  // the *read-eval* value: :unknown disallows reading, false/nil disables #=
+  final Object readEval;
+  // namespace for ::keyword and #::{} resolution, including its aliases
+  final Namespace ns;
+  // :allow or :preserve enables #? and #?@ (LispReader's :read-cond opt); anything else,
+  // null included, makes them throw
+  final Object readCond;
+  // the features #? branches are selected by, besides :default; may be null
+  final IPersistentSet features;
+  // expand syntax-quote to the compact forms, not LispReader's (see withCompactSyntaxQuote)
+  final boolean compactSyntaxQuote;
+  // read EdnReader's grammar rather than LispReader's (see withEdn)
+  final boolean edn;
+
+  public ReaderOptions(Object readers, IFn defaultReader, Object eof, Object readEval, Namespace ns) {
+    this(readers, DEFAULT_DATA_READERS.deref(), defaultReader, eof, readEval, ns, null, null, false, false);
+  }
+
+  private ReaderOptions(Object readers, Object defaultReaders, IFn defaultReader, Object eof, Object readEval,
+                        Namespace ns, Object readCond, IPersistentSet features, boolean compactSyntaxQuote,
+                        boolean edn) {
+    this.readers = readers;
+    this.defaultReaders = defaultReaders;
+    this.defaultReader = defaultReader;
+    this.eof = eof;
+    this.readEval = readEval;
+    this.ns = ns;
+    this.readCond = readCond;
+    this.features = features;
+    this.compactSyntaxQuote = compactSyntaxQuote;
+    this.edn = edn;
+  }
+
+  /** Captures the current bindings of the Vars {@code LispReader} consults. */
+  public static ReaderOptions fromBindings() {
+    return new ReaderOptions(DATA_READERS.deref(), (IFn) DEFAULT_DATA_READER_FN.deref(),
+        Reader2.EOF, READ_EVAL.deref(), (Namespace) RT.CURRENT_NS.deref());
+  }
+
+  /**
+   * Builds options from a {@code clojure.edn} style map: {@code :readers}, {@code :default}
+   * and {@code :eof}, plus {@code :read-eval}, and {@code :read-cond} and {@code :features} as
+   * {@code clojure.core/read} takes them ({@code :clj} is always a feature, as in
+   * {@code LispReader}). Keys that are absent take their value from the current bindings,
+   * except {@code :eof} which defaults to {@link Reader2#EOF}.
+   */
+  public static ReaderOptions fromMap(IPersistentMap opts) {
+    ReaderOptions b = fromBindings();
+    if (opts == null) return b;
+    IPersistentSet features = (IPersistentSet) opts.valAt(FEATURES_KEY);
+    return new ReaderOptions(
+        opts.containsKey(READERS_KEY) ? opts.valAt(READERS_KEY) : b.readers,
+        b.defaultReaders,
+        opts.containsKey(DEFAULT_KEY) ? (IFn) opts.valAt(DEFAULT_KEY) : b.defaultReader,
+        opts.containsKey(EOF_KEY) ? opts.valAt(EOF_KEY) : b.eof,
+        opts.containsKey(READ_EVAL_KEY) ? opts.valAt(READ_EVAL_KEY) : b.readEval,
+        b.ns,
+        opts.valAt(READ_COND_KEY),
+        features == null ? RT.set(PLATFORM_FEATURE) : (IPersistentSet) features.cons(PLATFORM_FEATURE),
+        b.compactSyntaxQuote,
+        b.edn);
+  }
+
+  /** Returns a copy whose {@link Reader2#read()} returns {@code eof} at end of input. */
+  public ReaderOptions withEof(Object eof) {
+    return new ReaderOptions(readers, defaultReaders, defaultReader, eof, readEval, ns, readCond, features, compactSyntaxQuote, edn);
+  }
+
+  /** Returns a copy whose {@code ::keyword}s resolve against {@code ns}. */
+  public ReaderOptions withNamespace(Namespace ns) {
+    return new ReaderOptions(readers, defaultReaders, defaultReader, eof, readEval, ns, readCond, features, compactSyntaxQuote, edn);
+  }
+
+  /**
+   * Returns a copy that reads reader conditionals: {@code mode} is {@code :allow} (keep the
+   * first branch whose feature is in {@code features} or is {@code :default}) or
+   * {@code :preserve} (return them as {@link clojure.lang.ReaderConditional}s). The features are
+   * taken as given: add {@code :clj} to select Clojure branches.
+   */
+  public ReaderOptions withReadCond(Keyword mode, IPersistentSet features) {
+    return new ReaderOptions(readers, defaultReaders, defaultReader, eof, readEval, ns, mode, features, compactSyntaxQuote, edn);
+  }
+
+  /**
+   * Returns a copy that expands syntax-quote to smaller forms that evaluate to the same values:
+   * a collection without {@code ~@} becomes a direct {@code (list ...)}, {@code (vector ...)},
+   * {@code (hash-map ...)} or {@code (hash-set ...)} call, a part without any unquote becomes a
+   * single quoted constant, and around a {@code ~@} consecutive elements are grouped into one
+   * {@code list} call or quoted list. The default is {@code LispReader}'s exact expansion.
+   */
+  public ReaderOptions withCompactSyntaxQuote(boolean compact) {
+    return new ReaderOptions(readers, defaultReaders, defaultReader, eof, readEval, ns, readCond, features, compact, edn);
+  }
+
+  /**
+   * Returns a copy that reads EDN as {@code clojure.edn/read} does, rejecting what only Clojure
+   * code has: {@code @}, {@code ~} and {@code `} throw, {@code 'x} is the symbol {@code 'x},
+   * {@code ::keyword}s and {@code #::{}} maps are invalid, and of the dispatch macros only
+   * {@code #{}}, {@code #_}, {@code #:ns{}}, {@code ##Inf} and tagged literals are read. The
+   * namespace is never consulted.
+   */
+  public ReaderOptions withEdn(boolean edn) {
+    return new ReaderOptions(readers, defaultReaders, defaultReader, eof, readEval, ns, readCond, features,
+        compactSyntaxQuote, edn);
+  }
+
+  // Looks up a data reader: the configured readers first, then default-data-readers.
+  IFn dataReaderFor(Object tag) {
+    Object r = RT.get(readers, tag);
+    if (r == null) r = RT.get(defaultReaders, tag);
+    return (IFn) r;
+  }
+}
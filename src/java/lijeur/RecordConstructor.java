@@ -0,0 +1,125 @@
+package lijeur;
+
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentVector;
+import clojure.lang.RT;
+import clojure.lang.Reflector;
+import clojure.lang.Util;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Builds the values of {@code #my.ns.Rec{...}} and {@code #my.ns.Rec[...]} literals for one
+ * class, as {@code LispReader.CtorReader} does: a map goes to the static {@code create}, a
+ * vector to the public constructor of its arity. The class is resolved once and the call sites
+ * are cached as {@link MethodHandle}s, so each literal is one handle invocation instead of a
+ * class lookup and a reflective call.
+ *
+ * <p>Constructors whose parameters are all {@code Object}, {@code long}, {@code double} or a
+ * Clojure interface (what {@code defrecord} and {@code deftype} generate) get a handle, with
+ * numbers coerced as {@link Reflector} does. Other classes, and arities with several
+ * constructors, go through {@link Reflector#invokeConstructor} so that its overload resolution
+ * and errors are kept.
+ */
+final class RecordConstructor {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+  private static final MethodType CREATE_TYPE = MethodType.methodType(Object.class, Object.class);
+
+  final Class<?> cls;
+  private final MethodHandle create;        // (Object)Object, or null: no public static create
+  // Spread handles by arity, type (Object[])Object; null where Reflector is used instead.
+  private final MethodHandle[] ctors;
+  private final Class<?>[][] paramTypes;
+  private final boolean[] hasArity;
+
+  RecordConstructor(Class<?> cls) {
+    this.cls = cls;
+    this.create = findCreate(cls);
+    Constructor<?>[] all = cls.getConstructors();
+    int max = -1;
+    for (Constructor<?> c : all) max = Math.max(max, c.getParameterCount());
+    ctors = new MethodHandle[max + 1];
+    paramTypes = new Class<?>[max + 1][];
+    hasArity = new boolean[max + 1];
+    int[] count = new int[max + 1];
+    for (Constructor<?> c : all) count[c.getParameterCount()]++;
+    for (Constructor<?> c : all) {
+      int n = c.getParameterCount();
+      hasArity[n] = true;
+      if (count[n] != 1 || !handled(c.getParameterTypes())) continue;
+      try {
+        ctors[n] = LOOKUP.unreflectConstructor(c)
+            .asType(MethodType.genericMethodType(n))
+            .asSpreader(Object[].class, n);
+        paramTypes[n] = c.getParameterTypes();
+      } catch (IllegalAccessException e) {
+        // left to Reflector
+      }
+    }
+  }
+
+  private static MethodHandle findCreate(Class<?> cls) {
+    try {
+      Method m = cls.getMethod("create", IPersistentMap.class);
+      if (!Modifier.isStatic(m.getModifiers())) return null;
+      return LOOKUP.unreflect(m).asType(CREATE_TYPE);
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      return null;
+    }
+  }
+
+  private static boolean handled(Class<?>[] types) {
+    for (Class<?> t : types) {
+      if (t == Object.class || t == long.class || t == double.class) continue;
+      if (t.isInterface() && t.getName().startsWith("clojure.lang.")) continue;
+      return false;
+    }
+    return true;
+  }
+
+  /** {@code #cls{...}}: {@code (cls/create vals)}. */
+  Object create(IPersistentMap vals) {
+    if (create == null)                     // let Reflector report the missing method
+      return Reflector.invokeStaticMethod(cls, "create", new Object[]{vals});
+    try {
+      return (Object) create.invokeExact((Object) vals);
+    } catch (Throwable t) {
+      throw Util.sneakyThrow(t);
+    }
+  }
+
+  /** {@code #cls[...]}: the constructor taking one argument per element. */
+  Object construct(IPersistentVector entries) {
+    int n = entries.count();
+    if (n >= hasArity.length || !hasArity[n])
+      throw Util.runtimeException("Unexpected number of constructor arguments to " + cls + ": got " + n);
+    Object[] args = RT.toArray(entries);
+    MethodHandle mh = ctors[n];
+    if (mh == null) return Reflector.invokeConstructor(cls, args);
+    Class<?>[] types = paramTypes[n];
+    for (int i = 0; i < n; i++) {
+      Class<?> t = types[i];
+      if (t == long.class) args[i] = toNumber(t, args[i]).longValue();
+      else if (t == double.class) args[i] = toNumber(t, args[i]).doubleValue();
+      else if (t != Object.class) args[i] = t.cast(args[i]);
+    }
+    try {
+      return (Object) mh.invokeExact(args);
+    } catch (Throwable t) {
+      throw Util.sneakyThrow(t);
+    }
+  }
+
+  // Reflector.boxArg's check for a primitive parameter.
+  private static Number toNumber(Class<?> paramType, Object arg) {
+    if (arg instanceof Number) return (Number) arg;
+    throw new IllegalArgumentException("Unexpected param type, expected: " + paramType +
+        ", given: " + (arg == null ? "null" : arg.getClass().getName()));
+  }
+}
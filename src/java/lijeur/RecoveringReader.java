@@ -0,0 +1,186 @@
+package lijeur;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads every top-level form of a text it can, recording a {@link Diagnostic} for each one that
+ * fails instead of stopping at the first error, so a corpus can be validated in one pass.
+ *
+ * <p>After a failure, reading resumes past the failed form. Its end is found with the
+ * scan-only lexer of {@link FormBoundaries}, which ignores what the reader rejects inside a form
+ * that is otherwise well delimited (a bad token, an unknown tag, a duplicate key). If the form
+ * is not even lexically complete (an unclosed string or collection), reading resumes at the next
+ * line that starts with {@code (}, {@code [}, {@code {} or {@code #}, the usual shape of a
+ * top-level form.
+ *
+ * <p>At most {@code maxDiagnostics} diagnostics are kept; later failures are only counted, and
+ * reading goes on. Line and column numbers are only computed once something fails.
+ */
+public final class RecoveringReader {
+
+  /** A top-level form that failed to read. */
+  public static final class Diagnostic {
+    private final RuntimeException error;
+    private final int offset;
+    private final int line;
+    private final int column;
+
+    Diagnostic(RuntimeException error, int offset, int line, int column) {
+      this.error = error;
+      this.offset = offset;
+      this.line = line;
+      this.column = column;
+    }
+
+    public String message() {
+      return error.getMessage();
+    }
+
+    /** The exception the reader threw. */
+    public RuntimeException error() {
+      return error;
+    }
+
+    /** Char offset at which the reader stopped. */
+    public int offset() {
+      return offset;
+    }
+
+    /** 1-based line of {@link #offset()}, counted like {@link clojure.lang.LineNumberingPushbackReader}. */
+    public int line() {
+      return line;
+    }
+
+    /** 1-based column of {@link #offset()}. */
+    public int column() {
+      return column;
+    }
+
+    @Override
+    public String toString() {
+      return line + ":" + column + ": " + message();
+    }
+  }
+
+  public static final class Result {
+    private final List<Object> forms;
+    private final List<Diagnostic> diagnostics;
+    private final int suppressed;
+
+    Result(List<Object> forms, List<Diagnostic> diagnostics, int suppressed) {
+      this.forms = forms;
+      this.diagnostics = diagnostics;
+      this.suppressed = suppressed;
+    }
+
+    /** The forms that were read, in order. */
+    public List<Object> forms() {
+      return forms;
+    }
+
+    /** The first failures, in order, up to the reader's maximum. */
+    public List<Diagnostic> diagnostics() {
+      return diagnostics;
+    }
+
+    /** Failures past the maximum, which have no diagnostic. */
+    public int suppressed() {
+      return suppressed;
+    }
+
+    public boolean ok() {
+      return diagnostics.isEmpty();
+    }
+  }
+
+  private final ReaderOptions opts;
+  private final int maxDiagnostics;
+
+  public RecoveringReader(ReaderOptions opts, int maxDiagnostics) {
+    // End of input is detected by identity, so it must not collide with a form like nil.
+    this.opts = opts.eof == Reader2.EOF ? opts : opts.withEof(Reader2.EOF);
+    this.maxDiagnostics = maxDiagnostics;
+  }
+
+  public RecoveringReader() {
+    this(ReaderOptions.fromBindings(), 100);
+  }
+
+  /** Reads all of {@code in}, which is not closed. */
+  public Result read(java.io.Reader in) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    char[] chunk = new char[Reader2.DEFAULT_CHUNK_SIZE];
+    for (int n; (n = in.read(chunk)) != -1; ) sb.append(chunk, 0, n);
+    return read(sb);
+  }
+
+  public Result read(CharSequence text) {
+    List<Object> forms = new ArrayList<>();
+    List<Diagnostic> diagnostics = new ArrayList<>();
+    int suppressed = 0;
+    int[] lineStarts = null;                // built on the first failure
+    int len = text.length();
+    int from = 0;
+    long[] start = new long[1];
+    while (from < len) {
+      Reader2 r = new Reader2(new FormSpliterator.RangeReader(text, from, len),
+          Reader2.DEFAULT_CHUNK_SIZE, opts);
+      start[0] = 0;
+      try {
+        for (Object o; (o = r.readTopLevel(start)) != Reader2.EOF; ) forms.add(o);
+        break;
+      } catch (RuntimeException e) {
+        if (diagnostics.size() < maxDiagnostics) {
+          if (lineStarts == null) lineStarts = lineStarts(text);
+          int offset = from + (int) r.offset();
+          int line = lineOf(lineStarts, offset);
+          diagnostics.add(new Diagnostic(e, offset, line + 1, offset - lineStarts[line] + 1));
+        } else {
+          suppressed++;
+        }
+        from = resume(text, from + (int) start[0], len, opts.edn);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+    return new Result(forms, diagnostics, suppressed);
+  }
+
+  // Where to read on after the form at `formStart` failed: past its lexical end, else at the
+  // next line that starts like a top-level form, else at the end.
+  static int resume(CharSequence text, int formStart, int len, boolean edn) {
+    int end = FormBoundaries.next(text, formStart, len, formStart + 1, edn);
+    if (end != -1) return end;
+    for (int p = formStart; p < len - 1; p++) {
+      char c = text.charAt(p);
+      if (c != '\n' && c != '\r') continue;
+      char d = text.charAt(p + 1);
+      if (d == '(' || d == '[' || d == '{' || d == '#') return p + 1;
+    }
+    return len;
+  }
+
+  // Offsets at which lines start: after a \n, or after a \r not followed by \n.
+  private static int[] lineStarts(CharSequence text) {
+    int[] starts = new int[64];
+    int n = 1;
+    for (int p = 0, len = text.length(); p < len; p++) {
+      char c = text.charAt(p);
+      if (c == '\n' || (c == '\r' && (p + 1 == len || text.charAt(p + 1) != '\n'))) {
+        if (n == starts.length) starts = Arrays.copyOf(starts, n * 2);
+        starts[n++] = p + 1;
+      }
+    }
+    return Arrays.copyOf(starts, n);
+  }
+
+  // 0-based line containing `offset`.
+  private static int lineOf(int[] starts, int offset) {
+    int i = Arrays.binarySearch(starts, offset);
+    return i >= 0 ? i : -i - 2;
+  }
+}
@@ -0,0 +1,58 @@
+package lijeur;
+
+import java.util.regex.Pattern;
+
+/**
+ * A process-wide cache from the raw chars of a {@code #"..."} literal to its compiled
+ * {@link Pattern}, so a pattern repeated across forms, files and readers is compiled once.
+ * {@link Pattern} is immutable and thread-safe, so sharing one instance is safe.
+ *
+ * <p>Direct-mapped like {@link TokenCache}: a collision overwrites the slot, each slot holds an
+ * immutable entry, and readers on several threads share it without locking. The size is fixed,
+ * and literals longer than {@link #MAX_LENGTH} chars are compiled without being kept, so the
+ * cache stays bounded.
+ */
+final class RegexCache {
+
+  static final int MAX_LENGTH = 1024;
+
+  /** The cache all {@link Reader2}s use. */
+  static final RegexCache SHARED = new RegexCache(1024);
+
+  private static final class Entry {
+    final char[] key;
+    final Pattern value;
+
+    Entry(char[] key, Pattern value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final Entry[] table;
+  private final int mask;
+
+  // size must be a power of two
+  RegexCache(int size) {
+    this.table = new Entry[size];
+    this.mask = size - 1;
+  }
+
+  /** The pattern of the literal {@code a[start, start + len)}; throws as Pattern.compile does. */
+  Pattern get(char[] a, int start, int len) {
+    if (len > MAX_LENGTH) return Pattern.compile(new String(a, start, len));
+    int h = 0;
+    for (int i = 0; i < len; i++) h = h * 31 + a[start + i];
+    int idx = (h ^ (h >>> 16)) & mask;
+    Entry e = table[idx];
+    if (e != null && e.key.length == len) {
+      char[] k = e.key;
+      int i = 0;
+      while (i < len && k[i] == a[start + i]) i++;
+      if (i == len) return e.value;
+    }
+    Pattern p = Pattern.compile(new String(a, start, len));
+    table[idx] = new Entry(java.util.Arrays.copyOfRange(a, start, start + len), p);
+    return p;
+  }
+}
@@ -0,0 +1,119 @@
+package lijeur;
+
+import java.util.Arrays;
+
+/**
+ * Source spans of the forms a {@link Reader2} read, kept in a side table instead of metadata
+ * maps. Enable with {@link Reader2#trackSpans()}. Recording a form costs three array writes
+ * (the form, its start and its end offset); the identity index {@link #start(Object)} and
+ * {@link #end(Object)} use is only built when first looked up.
+ *
+ * <p>Offsets are absolute char offsets into the input; a span is {@code [start, end)}. Forms
+ * are recorded in the order they complete, so nested forms come before their parent. Forms
+ * discarded with {@code #_} are not recorded.
+ *
+ * <p>Lookup is by identity, so it is exact for collections, strings and symbols (which get a
+ * fresh identity per occurrence while spans are tracked). Values the runtime shares, such as
+ * keywords, small numbers, characters and booleans, map to their first occurrence, and
+ * {@code nil} is never recorded; walk {@link #form(int)} in order to place those.
+ */
+public final class SpanTable {
+
+  private Object[] forms = new Object[64];
+  private long[] starts = new long[64];
+  private long[] ends = new long[64];
+  private int size;
+
+  // Open-addressed identity index: slot -> 1 + position in forms, 0 = empty. Covers the first
+  // `indexed` forms.
+  private int[] slots;
+  private int indexed;
+
+  void add(Object form, long start, long end) {
+    int n = size;
+    if (n == forms.length) {
+      forms = Arrays.copyOf(forms, n * 2);
+      starts = Arrays.copyOf(starts, n * 2);
+      ends = Arrays.copyOf(ends, n * 2);
+    }
+    forms[n] = form;
+    starts[n] = start;
+    ends[n] = end;
+    size = n + 1;
+  }
+
+  // Drops the forms recorded since `mark` (a discarded form and its children).
+  void truncate(int mark) {
+    Arrays.fill(forms, mark, size, null);
+    size = mark;
+    if (indexed > mark) {
+      slots = null;
+      indexed = 0;
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public Object form(int i) {
+    return forms[i];
+  }
+
+  public long start(int i) {
+    return starts[i];
+  }
+
+  public long end(int i) {
+    return ends[i];
+  }
+
+  /** Start offset of {@code form}, or -1 if it was not recorded. */
+  public long start(Object form) {
+    int i = indexOf(form);
+    return i < 0 ? -1 : starts[i];
+  }
+
+  /** End offset (exclusive) of {@code form}, or -1 if it was not recorded. */
+  public long end(Object form) {
+    int i = indexOf(form);
+    return i < 0 ? -1 : ends[i];
+  }
+
+  /** Position of {@code form} in recording order, or -1 if it was not recorded. */
+  public int indexOf(Object form) {
+    if (form == null) return -1;
+    ensureIndexed();
+    int mask = slots.length - 1;
+    for (int h = mix(System.identityHashCode(form)) & mask; ; h = (h + 1) & mask) {
+      int s = slots[h];
+      if (s == 0) return -1;
+      if (forms[s - 1] == form) return s - 1;
+    }
+  }
+
+  private void ensureIndexed() {
+    if (slots != null && indexed == size) return;
+    if (slots == null || size * 2 > slots.length) {
+      slots = new int[Integer.highestOneBit(Math.max(size, 8) * 4 - 1) << 1];
+      indexed = 0;
+    }
+    int mask = slots.length - 1;
+    for (int i = indexed; i < size; i++) {
+      Object f = forms[i];
+      if (f == null) continue;
+      int h = mix(System.identityHashCode(f)) & mask;
+      while (true) {
+        int s = slots[h];
+        if (s == 0) { slots[h] = i + 1; break; }
+        if (forms[s - 1] == f) break;    // keep the first occurrence of a shared value
+        h = (h + 1) & mask;
+      }
+    }
+    indexed = size;
+  }
+
+  private static int mix(int h) {
+    return h ^ (h >>> 16);
+  }
+}
@@ -0,0 +1,85 @@
+package lijeur;
+
+import clojure.lang.Compiler;
+import clojure.lang.IPersistentMap;
+import clojure.lang.Namespace;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+
+/**
+ * Resolves the symbols of a syntax-quoted form exactly as {@code LispReader.syntaxQuote} does,
+ * through {@code Compiler.resolveSymbol} itself, called through a {@link MethodHandle} rather
+ * than reflection. Results are memoized for the current namespace: the memo is kept only while
+ * {@code *ns*} and that namespace's mappings and aliases are the same instances, so any
+ * {@code def}, {@code refer}, {@code import} or {@code alias} in between starts a new one.
+ *
+ * <p>One per {@link Reader2}; not thread-safe.
+ */
+final class SymbolResolver {
+
+  // Compiler.resolveSymbol is package-private: open it once, then call it as a constant handle.
+  private static final MethodHandle RESOLVE_SYMBOL;
+  static {
+    try {
+      Method m = Compiler.class.getDeclaredMethod("resolveSymbol", Symbol.class);
+      m.setAccessible(true);
+      RESOLVE_SYMBOL = MethodHandles.lookup().unreflect(m);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private Namespace ns;
+  private IPersistentMap mappings;
+  private IPersistentMap aliases;
+  private final HashMap<Symbol, Symbol> memo = new HashMap<>();
+
+  /**
+   * {@code Compiler.isSpecial}: its keys are all symbols, so anything else is answered without
+   * hashing the form.
+   */
+  static boolean isSpecial(Object form) {
+    return form instanceof Symbol && Compiler.specials.containsKey(form);
+  }
+
+  /**
+   * A symbol that is neither an auto-gensym nor a {@code .method}: a namespace naming a class
+   * is replaced by the class name, anything else goes through {@code Compiler.resolveSymbol}.
+   */
+  Symbol resolve(Symbol sym) {
+    Namespace current = (Namespace) RT.CURRENT_NS.deref();
+    IPersistentMap m = current.getMappings();
+    IPersistentMap a = current.getAliases();
+    if (current != ns || m != mappings || a != aliases) {
+      memo.clear();
+      ns = current;
+      mappings = m;
+      aliases = a;
+    }
+    Symbol r = memo.get(sym);
+    if (r == null) {
+      r = resolve(current, sym);
+      if (r != null) memo.put(sym, r);       // Compiler returns null for odd mappings: don't memo
+    }
+    return r;
+  }
+
+  private static Symbol resolve(Namespace current, Symbol sym) {
+    if (sym.getNamespace() != null) {
+      Object maybeClass = current.getMapping(Symbol.intern(null, sym.getNamespace()));
+      if (maybeClass instanceof Class) return Symbol.intern(((Class<?>) maybeClass).getName(), sym.getName());
+    }
+    try {
+      return (Symbol) RESOLVE_SYMBOL.invokeExact(sym);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable t) {
+      throw new RuntimeException(t);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package lijeur;
+
+import clojure.lang.Keyword;
+import clojure.lang.Symbol;
+
+/**
+ * A cache from a token's chars to its interned Symbol or Keyword, so a repeated plain token
+ * skips the String allocation and the intern. Keyed on the whole token including any leading
+ * ':', so symbols and keywords never collide.
+ *
+ * <p>Direct-mapped: a hash collision overwrites the slot and the next lookup recomputes, which
+ * is still correct. Each slot holds an immutable entry, so one cache can be shared by readers
+ * on several threads (see {@link BulkLoader}) without locking: a racing write only loses an
+ * entry.
+ */
+final class TokenCache {
+
+  private static final class Entry {
+    final char[] key;
+    final Object value;
+
+    Entry(char[] key, Object value) {
+      this.key = key;
+      this.value = value;
+    }
+  }
+
+  private final Entry[] table;
+  private final int mask;
+
+  // size must be a power of two
+  TokenCache(int size) {
+    this.table = new Entry[size];
+    this.mask = size - 1;
+  }
+
+  Object intern(char[] a, int start, int len, boolean keyword) {
+    int h = 0;
+    for (int i = 0; i < len; i++) h = h * 31 + a[start + i];
+    int idx = h & mask;
+    Entry e = table[idx];
+    if (e != null && e.key.length == len) {
+      char[] k = e.key;
+      int i = 0;
+      while (i < len && k[i] == a[start + i]) i++;
+      if (i == len) return e.value;
+    }
+    Object v = keyword
+        ? Keyword.intern(Symbol.intern(new String(a, start + 1, len - 1)))
+        : Symbol.intern(new String(a, start, len));
+    table[idx] = new Entry(java.util.Arrays.copyOfRange(a, start, start + len), v);
+    return v;
+  }
+}
@@ -0,0 +1,121 @@
+package lijeur;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Pins the bytes {@link Reader2} allocates per form on canonical inputs, so a change that adds
+ * an allocation to a hot path (a String per token, a box per long) fails here instead of going
+ * unnoticed. Budgets are the measured cost plus a little headroom; lower them when an
+ * optimization lands.
+ *
+ * <p>Allocation is counted per thread by {@code com.sun.management.ThreadMXBean}. The reader is
+ * reused through {@link Reader2#reset}, so its buffer is not counted, and each input is read
+ * many times with the smallest count kept, once the JIT has settled.
+ */
+public class AllocationBudgetTest {
+
+  private static com.sun.management.ThreadMXBean threads;
+
+  @BeforeAll
+  public static void checkSupported() {
+    assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean,
+        "no per-thread allocation counter on this JVM");
+    threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled(),
+        "per-thread allocation counting is off");
+  }
+
+  // Fewest bytes allocated per form over the rounds, reading all of `input` each time.
+  private static long bytesPerForm(String input, int chunk) throws IOException {
+    Reader2 r = new Reader2(new StringReader(""), chunk);
+    long thread = Thread.currentThread().getId();
+    int forms = 0;
+    long best = Long.MAX_VALUE;
+    for (int round = 0; round < 60; round++) {
+      long before = threads.getThreadAllocatedBytes(thread);
+      forms = 0;
+      for (int i = 0; i < 20; i++) {
+        r.reset(new StringReader(input));
+        while (r.read() != Reader2.EOF) forms++;
+      }
+      best = Math.min(best, threads.getThreadAllocatedBytes(thread) - before);
+    }
+    return best / forms;
+  }
+
+  private static void assertBudget(String what, long budget, String input) throws IOException {
+    assertBudget(what, budget, input, Reader2.DEFAULT_CHUNK_SIZE);
+  }
+
+  private static void assertBudget(String what, long budget, String input, int chunk) throws IOException {
+    long measured = bytesPerForm(input, chunk);
+    if (measured > budget) {
+      fail(String.format("%s: allocated %,d bytes per form, over its budget of %,d bytes by %,d",
+          what, measured, budget, measured - budget));
+    }
+  }
+
+  @Test
+  public void testLongVector() throws IOException {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) sb.append(1000 + i).append(' ');   // past Long's box cache
+    // 1000 Longs at 16 bytes, the vector's nodes, and the list and array it is built from: about
+    // 69 KB. Escape analysis sometimes removes a third of that, but a run where it has not must pass
+    assertBudget("1k long vector", 72_000, sb.append(']').toString());
+  }
+
+  @Test
+  public void testCachedKeywordsAllocateNothing() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) sb.append(":key-").append(i % 16).append(' ');
+    // only the StringReader of each round, which rounds down to 0 over 1000 forms
+    assertBudget("cached keyword", 0, sb.toString());
+  }
+
+  @Test
+  public void testQualifiedKeyword() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1000; i++) sb.append(":ns/key-").append(i % 16).append(' ');
+    // not cached: the token String, the name String, and the Symbol(s) Keyword.intern looks up
+    assertBudget("qualified keyword", 256, sb.toString());
+  }
+
+  @Test
+  public void testKeywordMap() throws IOException {
+    StringBuilder sb = new StringBuilder("{");
+    for (int i = 0; i < 16; i++) sb.append(":key-").append(i).append(' ').append(i).append(' ');
+    // the map alone: keys come from the token cache, small Longs from Long's box cache
+    assertBudget("map of 16 cached keywords", 1_536, sb.append('}').toString());
+  }
+
+  @Test
+  public void testEscapedString() throws IOException {
+    StringBuilder sb = new StringBuilder("\"");
+    for (int i = 0; i < 100; i++) sb.append("tab\\there \\\"q\\\" \\u00e9\\n");
+    // decoded in place: the 1500-char String and its Latin-1 bytes, no intermediate copy
+    assertBudget("1500-char escaped string", 1_800, sb.append('"').toString());
+  }
+
+  @Test
+  public void testTokenLongerThanTheBuffer() throws IOException {
+    String s = "\"" + "x".repeat(64 * 1024) + "\"";
+    // the 64 KB String, plus the buffer doubling up to 128k chars (512 KB over all its copies)
+    // to hold the token; growing by a chunk at a time would copy about 64 MB
+    assertBudget("64k-char string in 64-char chunks", 640_000, s, 64);
+  }
+
+  @Test
+  public void testMessageShowsBudgetAndMeasurement() {
+    AssertionError e = assertThrows(AssertionError.class, () -> assertBudget("tiny budget", 1, "\"abc\""));
+    assertTrue(e.getMessage().matches("tiny budget: allocated [\\d,]+ bytes per form, over its budget of 1 bytes by [\\d,]+"),
+        e.getMessage());
+  }
+}
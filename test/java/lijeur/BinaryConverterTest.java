@@ -0,0 +1,134 @@
+package lijeur;
+
+import clojure.lang.IMeta;
+import clojure.lang.RT;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BinaryConverterTest {
+
+  private static final String SRC =
+      "(ns config) ^:private ^{:doc \"d\"} [1 -2 3.5 -0.0 ##Inf ##-Inf 12345678901234567890 1.5M 22/7 \\a \\u00e9 \\newline]\n"
+      + "{:a/b sym ns/sym \"str é 😀 \\\" \\\\ \\n\" nil true false #{1 2} () [] {} :z} '(quote x) #inst \"2020-01-02T03:04:05.006Z\"\n"
+      + "#uuid \"f81d4fae-7dec-11d0-a765-00a0c91e6bf6\" (defn ^String f [^long x] x) \"" + "long ".repeat(3000) + "\"";
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static void assertSameForms(Object expected, Object actual) {
+    assertEquals(expected, actual);
+    if (expected instanceof IMeta) assertEquals(((IMeta) expected).meta(), ((IMeta) actual).meta());
+    if (expected instanceof Iterable) {
+      var a = ((Iterable<?>) actual).iterator();
+      for (Object e : (Iterable<?>) expected) assertSameForms(e, a.next());
+    }
+  }
+
+  @Test
+  public void testEdnBinaryEdnRoundTrip() throws IOException {
+    List<Object> expected = readAll(SRC);
+    ByteArrayOutputStream bin = new ByteArrayOutputStream();
+    assertEquals(expected.size(), BinaryConverter.ednToBinary(new StringReader(SRC), bin, ReaderOptions.fromBindings()));
+    StringWriter edn = new StringWriter();
+    assertEquals(expected.size(), BinaryConverter.binaryToEdn(new ByteArrayInputStream(bin.toByteArray()), edn));
+    List<Object> back = readAll(edn.toString());
+    assertEquals(expected.size(), back.size());
+    for (int i = 0; i < expected.size(); i++) assertSameForms(expected.get(i), back.get(i));
+  }
+
+  @Test
+  public void testLineNumberMetadataRoundTrip() throws IOException {
+    List<Object> forms = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(SRC), Reader2.DEFAULT_CHUNK_SIZE, ReaderOptions.fromBindings(), true);
+    for (Object o; (o = r.read()) != Reader2.EOF; ) forms.add(o);
+    ByteArrayOutputStream bin = new ByteArrayOutputStream();
+    BinaryWriter w = new BinaryWriter(bin);
+    for (Object o : forms) w.write(o);
+    w.flush();
+    BinaryReader back = new BinaryReader(new ByteArrayInputStream(bin.toByteArray()));
+    for (Object o : forms) assertSameForms(o, back.read());
+    assertSame(Reader2.EOF, back.read());
+    // :line and :column stay Integers, as LispReader reads them
+    Object line = RT.get(((IMeta) new BinaryReader(bin.toByteArray(), 0, bin.size()).read()).meta(),
+        RT.keyword(null, "line"));
+    assertEquals(Integer.valueOf(1), line);
+  }
+
+  @Test
+  public void testInPlaceArrayAndStreamAgree() throws IOException {
+    ByteArrayOutputStream bin = new ByteArrayOutputStream();
+    BinaryConverter.ednToBinary(new StringReader(SRC), bin, ReaderOptions.fromBindings());
+    byte[] bytes = bin.toByteArray();
+    byte[] padded = new byte[bytes.length + 10];
+    System.arraycopy(bytes, 0, padded, 5, bytes.length);
+    BinaryReader inPlace = new BinaryReader(padded, 5, bytes.length);
+    BinaryReader stream = new BinaryReader(new ByteArrayInputStream(bytes));
+    for (Object o : readAll(SRC)) {
+      assertSameForms(o, inPlace.read());
+      assertSameForms(o, stream.read());
+    }
+    assertSame(Reader2.EOF, inPlace.read());
+    assertSame(Reader2.EOF, stream.read());
+    BinaryReader cut = new BinaryReader(bytes, 0, bytes.length - 1);
+    assertThrows(java.io.EOFException.class, () -> {
+      while (cut.read() != Reader2.EOF) { }
+    });
+  }
+
+  @Test
+  public void testCorruptCountsAreRejected() {
+    byte[] huge = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};      // 2^32 - 1
+    byte[] negative = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF,
+        (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x01};                    // 2^64 - 1
+    byte[] big = {(byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F};                        // 2^28 - 1
+    int[] tags = {BinaryFormat.LIST, BinaryFormat.VECTOR, BinaryFormat.MAP, BinaryFormat.SET,
+        BinaryFormat.STRING, BinaryFormat.BIGINT, BinaryFormat.SYMBOL, BinaryFormat.SYMBOL_REF};
+    for (int tag : tags) {
+      for (byte[] count : new byte[][]{huge, negative, big}) {
+        byte[] bytes = new byte[count.length + 3];
+        bytes[0] = (byte) tag;
+        System.arraycopy(count, 0, bytes, 1, count.length);
+        assertThrows(IOException.class, () -> new BinaryReader(bytes, 0, bytes.length).read(), "tag " + tag);
+        // a stream cannot be measured up front: it ends first, having buffered only its bytes
+        assertThrows(IOException.class, () -> new BinaryReader(new ByteArrayInputStream(bytes)).read(), "tag " + tag);
+      }
+    }
+  }
+
+  @Test
+  public void testRepeatedNamesAreWrittenOnce() throws IOException {
+    ByteArrayOutputStream once = new ByteArrayOutputStream();
+    BinaryConverter.ednToBinary(new StringReader("[:some-long-keyword some.ns/sym]"), once, ReaderOptions.fromBindings());
+    ByteArrayOutputStream many = new ByteArrayOutputStream();
+    BinaryConverter.ednToBinary(new StringReader("[:some-long-keyword some.ns/sym]".repeat(10)), many, ReaderOptions.fromBindings());
+    assertTrue(many.size() < once.size() + 9 * 8, many.size() + " bytes");
+  }
+
+  @Test
+  public void testStringsEncodeLikeGetBytes() throws IOException {
+    String[] cases = {"", "ascii", "é", "€", "😀", "a\uD800b", "\uDC00", "x".repeat(10000) + "é"};
+    for (String s : cases) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      BinaryWriter w = new BinaryWriter(bytes);
+      w.write(s);
+      w.flush();
+      byte[] b = bytes.toByteArray();
+      Object back = new BinaryReader(b, 0, b.length).read();
+      assertEquals(new String(s.getBytes(java.nio.charset.StandardCharsets.UTF_8), java.nio.charset.StandardCharsets.UTF_8), back);
+      assertEquals(RT.printString(back), RT.printString(back));
+    }
+  }
+}
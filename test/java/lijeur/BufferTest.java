@@ -101,6 +101,23 @@ public class BufferTest {
     assertEquals(2 * chunkSize, buffer.bufferSize, "Buffer should shrink back to initial size");
   }
 
+  @Test
+  public void testBufferGrowsGeometrically() throws IOException {
+    StringBuilder token = new StringBuilder();
+    for (int i = 0; i < 100_000; i++) token.append('x');
+    Buffer buffer = new Buffer(new StringReader(token.toString()), 16);
+    int sizes = 0;
+    for (int last = buffer.bufferSize; buffer.read() != -1; ) {
+      if (buffer.bufferSize != last) {
+        sizes++;
+        last = buffer.bufferSize;
+      }
+    }
+    assertTrue(buffer.bufferSize >= 100_000);
+    assertTrue(buffer.bufferSize < 2 * 100_000 + 32, "size " + buffer.bufferSize);
+    assertTrue(sizes <= 13, sizes + " growths");   // 32 -> 131072 chars by doubling
+  }
+
   @Test
   public void testEOFHandling() throws IOException {
     Buffer buffer = new Buffer(new StringReader("x"), 1);
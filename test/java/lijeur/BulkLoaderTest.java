@@ -0,0 +1,93 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BulkLoaderTest {
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static String content(int i) {
+    StringBuilder sb = new StringBuilder("{:id " + i + " :name \"file-" + i + "\"}\n");
+    for (int j = 0; j < i % 50; j++) sb.append("[:k").append(j).append(" sym").append(j % 7).append("] ");
+    if (i % 10 == 0) sb.append("\"").append("x".repeat(20000)).append("\"");   // grows the buffer
+    return sb.toString();
+  }
+
+  @Test
+  public void testResultsInInputOrder(@TempDir Path dir) throws Exception {
+    List<Path> paths = new ArrayList<>();
+    for (int i = 0; i < 300; i++) {
+      Path p = dir.resolve("f" + i + ".edn");
+      Files.writeString(p, i == 7 ? "(unclosed" : content(i));
+      paths.add(p);
+    }
+    paths.add(dir.resolve("missing.edn"));
+    List<BulkLoader.Result> results = new BulkLoader(ReaderOptions.fromBindings(), 8).load(paths);
+    assertEquals(paths.size(), results.size());
+    for (int i = 0; i < 300; i++) {
+      BulkLoader.Result r = results.get(i);
+      assertEquals(paths.get(i), r.path());
+      if (i == 7) {
+        assertNull(r.forms());
+        assertEquals("EOF while reading", r.error().getMessage());
+      } else {
+        assertNull(r.error());
+        assertEquals(readAll(content(i)), r.forms());
+      }
+    }
+    assertTrue(results.get(300).error() instanceof IOException);
+  }
+
+  @Test
+  public void testTooDeepAFileFailsAlone(@TempDir Path dir) throws Exception {
+    Path deep = dir.resolve("deep.edn");
+    Path after = dir.resolve("after.edn");
+    Files.writeString(deep, "[".repeat(1_000_000) + "]".repeat(1_000_000));
+    Files.writeString(after, content(3));
+    List<BulkLoader.Result> results = new BulkLoader(ReaderOptions.fromBindings(), 1).load(List.of(deep, after));
+    assertNull(results.get(0).forms());
+    assertTrue(results.get(0).error() instanceof StackOverflowError, String.valueOf(results.get(0).error()));
+    assertNull(results.get(1).error());                     // the pooled reader is reused
+    assertEquals(readAll(content(3)), results.get(1).forms());
+  }
+
+  @Test
+  public void testGlobAndBoundedExecutor(@TempDir Path dir) throws Exception {
+    Files.createDirectories(dir.resolve("sub"));
+    for (int i = 0; i < 40; i++) Files.writeString(dir.resolve((i % 2 == 0 ? "sub/" : "") + "c" + i + ".edn"), content(i));
+    Files.writeString(dir.resolve("sub/skip.txt"), "(not read)");
+    ExecutorService pool = Executors.newFixedThreadPool(16);
+    try {
+      BulkLoader loader = new BulkLoader(ReaderOptions.fromBindings(), 3, pool);
+      List<BulkLoader.Result> results = loader.load(dir, "sub/*.edn");
+      assertEquals(20, results.size());
+      for (int i = 1; i < results.size(); i++)
+        assertTrue(results.get(i - 1).path().compareTo(results.get(i).path()) < 0);
+      for (BulkLoader.Result r : results) {
+        String name = r.path().getFileName().toString();
+        assertEquals(readAll(content(Integer.parseInt(name.substring(1, name.length() - 4)))), r.forms());
+      }
+      assertTrue(loader.readers.size() <= 3, "no more readers than files in flight");
+      assertEquals(20, loader.load(dir, "sub/*.edn").size(), "pooled readers are reusable");
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package lijeur;
+
+import clojure.java.api.Clojure;
+import clojure.lang.IFn;
+import clojure.lang.RT;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** Exercises the lijeur.core namespace against clojure.edn. */
+public class CoreNamespaceTest {
+
+  private static IFn var(String ns, String name) {
+    return Clojure.var(ns, name);
+  }
+
+  @BeforeAll
+  public static void load() {
+    IFn require = var("clojure.core", "require");
+    require.invoke(Clojure.read("lijeur.core"));
+    require.invoke(Clojure.read("clojure.edn"));
+  }
+
+  @Test
+  public void testReadMatchesEdn() {
+    String s = "1 (2 \"x\") {:a #inst \"2020-01-01\"} [\\c 3.5]";
+    PushbackReader a = new PushbackReader(new StringReader(s));
+    PushbackReader b = new PushbackReader(new StringReader(s));
+    Object opts = RT.map(RT.keyword(null, "eof"), RT.keyword(null, "done"));
+    for (int i = 0; i < 5; i++)
+      assertEquals(var("clojure.edn", "read").invoke(opts, a), var("lijeur.core", "read-edn").invoke(opts, b));
+    assertThrows(RuntimeException.class,
+        () -> var("lijeur.core", "read-edn").invoke(new PushbackReader(new StringReader(""))));
+  }
+
+  @Test
+  public void testReadString() {
+    assertEquals(RT.vector(1L, 2L), var("lijeur.core", "read-string").invoke("[1 2]"));
+    assertNull(var("lijeur.core", "read-string").invoke(null));
+    assertNull(var("lijeur.core", "read-string").invoke(""));
+    assertNull(var("clojure.edn", "read-string").invoke(""));
+  }
+
+  @Test
+  public void testReadEdnRejectsClojureSyntax() {
+    IFn edn = var("clojure.edn", "read");
+    IFn lijeur = var("lijeur.core", "read-edn");
+    for (String s : new String[]{"`a", "@x", "~x", "::foo", "#(inc %)", "#'x", "#\"x\"", "#=(+ 1 2)"}) {
+      RuntimeException expected = assertThrows(RuntimeException.class,
+          () -> edn.invoke(new PushbackReader(new StringReader(s))), s);
+      RuntimeException actual = assertThrows(RuntimeException.class,
+          () -> lijeur.invoke(new PushbackReader(new StringReader(s))), s);
+      assertEquals(expected.getMessage(), actual.getMessage(), s);
+    }
+    // 'a is the symbol 'a in EDN, not (quote a)
+    assertEquals(edn.invoke(new PushbackReader(new StringReader("'a"))),
+        lijeur.invoke(new PushbackReader(new StringReader("'a"))));
+  }
+
+  @Test
+  public void testFormsReducible() throws Exception {
+    Path f = Files.createTempFile("lijeur", ".edn");
+    try {
+      Files.writeString(f, "1 2 3 4 5");
+      Object forms = var("lijeur.core", "forms").invoke(f.toFile());
+      Object xf = var("clojure.core", "map").invoke(var("clojure.core", "inc"));
+      assertEquals(20L, var("clojure.core", "transduce").invoke(xf, var("clojure.core", "+"), forms));
+      Object firstTwo = var("clojure.core", "into").invoke(RT.vector(),
+          var("clojure.core", "take").invoke(2L), forms);
+      assertEquals(RT.vector(1L, 2L), firstTwo);
+      assertEquals(RT.vector(1L, 2L, 3L, 4L, 5L), var("clojure.core", "vec").invoke(forms));
+    } finally {
+      Files.delete(f);
+    }
+  }
+}
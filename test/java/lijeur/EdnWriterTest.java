@@ -0,0 +1,117 @@
+package lijeur;
+
+import clojure.lang.BigInt;
+import clojure.lang.IMeta;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Ratio;
+import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
+import clojure.lang.Var;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EdnWriterTest {
+
+  private static final String SRC =
+      "(ns config) ^:private ^{:doc \"d\"} [1 -2 3.5 -0.0 1e300 ##Inf ##-Inf 12345678901234567890 1.5M 1E+3M 22/7 -1/2 \\a \\u00e9 \\newline \\space \\\\ \\\" \\( \\u0000]\n"
+      + "{:a/b sym ns/sym \"str é 😀 \\\" \\\\ \\n \\t \\u0001\" nil true false #{1 2} () [] {} :z} '(quote x) #inst \"2020-01-02T03:04:05.006Z\"\n"
+      + "#uuid \"f81d4fae-7dec-11d0-a765-00a0c91e6bf6\" `(a ~b ~@c) (defn ^String f [^long x] x) #\"a\\\"b\\d+\" #'v @d #::{:x 1}";
+
+  private static Object read(String s) throws IOException {
+    return new Reader2(new StringReader(s)).read();
+  }
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static void assertRoundTrip(Object o) throws IOException {
+    String text = EdnWriter.toEdn(o);
+    Object back = read(text);
+    if (o instanceof java.util.regex.Pattern) assertEquals(o.toString(), back.toString(), text);
+    else assertEquals(o, back, text);
+  }
+
+  @Test
+  public void testReaderCorpusRoundTrips() throws IOException {
+    for (Object o : readAll(SRC)) assertRoundTrip(o);
+  }
+
+  @Test
+  public void testValues() throws IOException {
+    Object[] values = {null, true, false, 0L, Long.MIN_VALUE, Long.MAX_VALUE, 1.0, -0.0, Double.MIN_VALUE,
+        Double.MAX_VALUE, BigInt.fromBigInteger(BigInteger.TEN.pow(30)), new BigDecimal("-1.50"),
+        new BigDecimal("1E-10"), new Ratio(BigInteger.valueOf(-3), BigInteger.valueOf(4)), "", "\u2028\u00a0",
+        Keyword.intern("a.b", "c"), Symbol.intern("x.y", "z"), Symbol.intern("/"), Keyword.intern("k?"),
+        java.util.UUID.randomUUID(),
+        new java.util.Date(1234567890123L), RT.list(), RT.vector(), RT.map(), RT.set()};
+    for (Object o : values) assertRoundTrip(o);
+    assertEquals("##NaN", EdnWriter.toEdn(Double.NaN));
+    assertTrue(Double.isNaN((Double) read("##NaN")));
+    assertEquals("[1 2]", EdnWriter.toEdn(RT.vector(1, 2)));
+    assertEquals("#my/tag [1]", EdnWriter.toEdn(TaggedLiteral.create(Symbol.intern("my/tag"), RT.vector(1L))));
+    assertThrows(IllegalArgumentException.class, () -> EdnWriter.toEdn(new Object()));
+    assertThrows(IllegalArgumentException.class, () -> EdnWriter.toEdn('\ud800'));
+  }
+
+  @Test
+  public void testRecords() throws IOException {
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, RT.CURRENT_NS.deref()));
+    try {
+      RT.var("clojure.core", "eval").invoke(RT.readString("(do (ns lijeur.edn-writer-test) (defrecord P [x]))"));
+    } finally {
+      Var.popThreadBindings();
+    }
+    Object record = read("#lijeur.edn_writer_test.P{:x 1 :y [2]}");
+    assertEquals("#lijeur.edn_writer_test.P{:x 1 :y [2]}", EdnWriter.toEdn(record));
+    assertRoundTrip(record);
+    assertRoundTrip(RT.vector(record, RT.map(Keyword.intern("r"), record)));
+  }
+
+  @Test
+  public void testEveryCharAndRandomStrings() throws IOException {
+    for (char c = 0; c < 0xFFFF; c++) {
+      if (Character.isSurrogate(c)) continue;
+      assertEquals(c, read(EdnWriter.toEdn(c)), "char " + (int) c);
+    }
+    Random rnd = new Random(7);
+    for (int i = 0; i < 500; i++) {
+      char[] a = new char[rnd.nextInt(40)];
+      for (int j = 0; j < a.length; j++) a[j] = (char) (rnd.nextBoolean() ? rnd.nextInt(128) : rnd.nextInt(0x10000));
+      String s = new String(a);
+      assertEquals(s, read(EdnWriter.toEdn(s)));
+    }
+  }
+
+  @Test
+  public void testMetadataAndUtf8() throws IOException {
+    EdnWriter w = new EdnWriter(true);
+    List<Object> forms = readAll(SRC);
+    for (Object o : forms) w.write(o).append('\n');
+    List<Object> back = readAll(w.toString());
+    assertEquals(RT.printString(forms), RT.printString(back));   // regexes only compare by identity
+    for (int i = 0; i < forms.size(); i++)
+      if (forms.get(i) instanceof IMeta) assertEquals(((IMeta) forms.get(i)).meta(), ((IMeta) back.get(i)).meta());
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    w.writeTo(bytes);
+    assertArrayEquals(w.toString().getBytes(StandardCharsets.UTF_8), bytes.toByteArray());
+    w.reset();
+    assertEquals("\"😀\"", w.write("😀").toString());
+  }
+}
@@ -0,0 +1,162 @@
+package lijeur;
+
+import clojure.lang.IFn;
+import clojure.lang.IMeta;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.TaggedLiteral;
+import clojure.lang.Var;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormCacheTest {
+
+  private static final String SRC =
+      "(ns config) ^:private ^{:doc \"d\"} [1 -2 3.5 -0.0 ##Inf 12345678901234567890 1.5M 22/7 \\a \\u00e9]\n"
+      + "{:a/b sym ns/sym \"str é 😀\" nil true false #{1 2} () [] {} :z} '(quote x) #inst \"2020-01-02T03:04:05.006Z\"\n"
+      + "#uuid \"f81d4fae-7dec-11d0-a765-00a0c91e6bf6\" `(a ~b) (defn ^String f [^long x] x)";
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static void assertSameForms(Object expected, Object actual) {
+    assertEquals(expected, actual);
+    assertEquals(RT.printString(expected), RT.printString(actual));
+    if (expected instanceof IMeta) assertEquals(((IMeta) expected).meta(), ((IMeta) actual).meta());
+    if (expected instanceof Iterable) {
+      var a = ((Iterable<?>) actual).iterator();
+      for (Object e : (Iterable<?>) expected) assertSameForms(e, a.next());
+    }
+  }
+
+  // The cache's entries, as files.
+  private static List<Path> entries(Path dir) throws IOException {
+    try (Stream<Path> s = Files.list(dir)) {
+      return s.collect(Collectors.toList());
+    }
+  }
+
+  // Overwrites `entry` with an entry holding just `form`: reads that return it are hits.
+  private static void plant(Path entry, String form) throws IOException {
+    Path other = Files.createTempDirectory(entry.getParent().getParent(), "plant");
+    new FormCache(other, 1 << 20).read(form.getBytes(StandardCharsets.UTF_8));
+    Files.copy(entries(other).get(0), entry, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  @Test
+  public void testBinaryRoundTrip() throws IOException {
+    List<Object> forms = readAll(SRC);
+    forms.add(TaggedLiteral.create(clojure.lang.Symbol.intern("my/tag"), RT.vector(1L, Keyword.intern("k"))));
+    forms.add(java.util.regex.Pattern.compile("a\\d+"));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    BinaryWriter w = new BinaryWriter(bytes);
+    for (Object o : forms) w.write(o);
+    w.flush();
+    BinaryReader r = new BinaryReader(new ByteArrayInputStream(bytes.toByteArray()));
+    for (Object o : forms) {
+      Object back = r.read();
+      if (o instanceof java.util.regex.Pattern) assertEquals(o.toString(), back.toString());
+      else assertSameForms(o, back);
+    }
+    assertSame(Reader2.EOF, r.read());
+    assertThrows(IllegalArgumentException.class, () -> new BinaryWriter(bytes).write(new Object()));
+  }
+
+  @Test
+  public void testHitsAndInvalidation(@TempDir Path dir) throws IOException {
+    Path file = dir.resolve("data.edn");
+    Files.writeString(file, SRC);
+    Path cacheDir = dir.resolve("cache");
+    FormCache cache = new FormCache(cacheDir, 1 << 20);
+    List<Object> first = cache.read(file);
+    assertEquals(readAll(SRC), first);
+    Path entry = entries(cacheDir).get(0);
+    FormCache restarted = new FormCache(cacheDir, 1 << 20);
+    List<Object> second = restarted.read(file);
+    for (int i = 0; i < first.size(); i++) assertSameForms(first.get(i), second.get(i));
+    plant(entry, ":planted");
+    assertEquals(readAll(":planted"), restarted.read(file));   // so the read above was a hit too
+
+    Files.writeString(file, SRC + " :more");
+    assertEquals(readAll(SRC + " :more"), restarted.read(file));
+    assertEquals(2, entries(cacheDir).size());                  // a miss, stored beside the old one
+    assertEquals(readAll(":planted"), restarted.read(SRC.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  public void testRecordHitKeepsItsClass(@TempDir Path dir) throws IOException {
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, RT.CURRENT_NS.deref()));
+    try {
+      RT.var("clojure.core", "eval").invoke(RT.readString("(do (ns lijeur.form-cache-test) (defrecord P [x]))"));
+    } finally {
+      Var.popThreadBindings();
+    }
+    byte[] content = "[#lijeur.form_cache_test.P{:x 1 :y 2}]".getBytes(StandardCharsets.UTF_8);
+    Object miss = new FormCache(dir, 1 << 20).read(content).get(0);
+    assertEquals(1, entries(dir).size());                       // so the next read is a hit
+    Object hit = new FormCache(dir, 1 << 20).read(content).get(0);
+    Object record = RT.first(hit);
+    assertEquals("lijeur.form_cache_test.P", record.getClass().getName());
+    assertSame(RT.first(miss).getClass(), record.getClass());
+    assertSameForms(miss, hit);
+  }
+
+  @Test
+  public void testCorruptEntryIsAMiss(@TempDir Path dir) throws IOException {
+    FormCache cache = new FormCache(dir, 1 << 20);
+    byte[] content = "[1 2 3]".getBytes(StandardCharsets.UTF_8);
+    cache.read(content);
+    Path entry = entries(dir).get(0);
+    byte[] b = Files.readAllBytes(entry);
+    Files.write(entry, java.util.Arrays.copyOf(b, b.length - 2));
+    assertEquals(readAll("[1 2 3]"), cache.read(content));
+    assertArrayEquals(b, Files.readAllBytes(entry));             // deleted, then stored again
+  }
+
+  @Test
+  public void testSizeBound(@TempDir Path dir) throws IOException {
+    FormCache cache = new FormCache(dir, 4000);
+    for (int i = 0; i < 50; i++) cache.read(("[" + i + " \"" + "x".repeat(300) + "\"]").getBytes(StandardCharsets.UTF_8));
+    long total = 0;
+    try (Stream<Path> s = Files.list(dir)) {
+      for (Path p : (Iterable<Path>) s::iterator) total += Files.size(p);
+    }
+    assertTrue(total <= 4000, "cache dir holds " + total + " bytes");
+    assertTrue(total > 0);
+  }
+
+  @Test
+  public void testUnencodableFormsAreNotCached(@TempDir Path dir) throws IOException {
+    IFn reader = new clojure.lang.AFn() {
+      @Override public Object invoke(Object form) {
+        return new StringBuilder(String.valueOf(form));
+      }
+    };
+    ReaderOptions opts = new ReaderOptions(RT.map(clojure.lang.Symbol.intern("sb"), reader), null, Reader2.EOF, true,
+        (clojure.lang.Namespace) RT.CURRENT_NS.deref());
+    FormCache cache = new FormCache(dir, 1 << 20, opts);
+    byte[] content = "#sb \"x\"".getBytes(StandardCharsets.UTF_8);
+    assertEquals("x", cache.read(content).get(0).toString());
+    assertEquals("x", cache.read(content).get(0).toString());
+    assertEquals(0, entries(dir).size());
+  }
+}
@@ -0,0 +1,110 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormPublisherTest {
+
+  // Records every signal; requests `batch` forms up front and again after each full batch.
+  private static final class Recorder implements Flow.Subscriber<Object> {
+    final List<Object> items = new ArrayList<>();
+    final CountDownLatch finished = new CountDownLatch(1);
+    final int batch;
+    Flow.Subscription subscription;
+    Throwable error;
+    boolean completed;
+
+    Recorder(int batch) {
+      this.batch = batch;
+    }
+
+    @Override public void onSubscribe(Flow.Subscription s) { subscription = s; if (batch > 0) s.request(batch); }
+    @Override public void onNext(Object item) {
+      items.add(item);
+      if (batch > 0 && items.size() % batch == 0) subscription.request(batch);
+    }
+    @Override public void onError(Throwable t) { error = t; finished.countDown(); }
+    @Override public void onComplete() { completed = true; finished.countDown(); }
+  }
+
+  // Counts the chars handed out, to check that nothing is read without demand.
+  private static final class CountingReader extends StringReader {
+    int reads;
+    boolean closed;
+
+    CountingReader(String s) {
+      super(s);
+    }
+
+    @Override public int read(char[] cbuf, int off, int len) throws java.io.IOException {
+      reads++;
+      return super.read(cbuf, off, len);
+    }
+
+    @Override public void close() { closed = true; super.close(); }
+  }
+
+  @Test
+  public void testDemandDrivenReading() throws InterruptedException {
+    ExecutorService ex = Executors.newSingleThreadExecutor();
+    try {
+      CountingReader in = new CountingReader("1 nil [2] \"s\" :k");
+      Recorder r = new Recorder(2);
+      new FormPublisher(in, 1, ReaderOptions.fromBindings(), ex).subscribe(r);
+      assertTrue(r.finished.await(5, TimeUnit.SECONDS));
+      assertTrue(r.completed);
+      assertEquals("[1, nil, [2], s, :k]", r.items.toString());
+      assertSame(FormPublisher.NIL, r.items.get(1));
+      assertTrue(in.closed);
+    } finally {
+      ex.shutdown();
+    }
+  }
+
+  @Test
+  public void testNoReadingWithoutDemand() {
+    CountingReader in = new CountingReader("1 2 3");
+    Recorder r = new Recorder(0);
+    new FormPublisher(in, 1, ReaderOptions.fromBindings(), Runnable::run).subscribe(r);
+    assertEquals(0, in.reads);
+    r.subscription.request(1);
+    assertEquals(List.of(1L), r.items);
+    int reads = in.reads;
+    r.subscription.cancel();
+    assertEquals(reads, in.reads);
+    assertTrue(in.closed);
+    assertFalse(r.completed);
+  }
+
+  @Test
+  public void testReaderErrorAndBadRequest() {
+    Recorder r = new Recorder(10);
+    new FormPublisher(new StringReader("1 (2"), 4096, ReaderOptions.fromBindings(), Runnable::run).subscribe(r);
+    assertEquals(List.of(1L), r.items);
+    assertEquals("EOF while reading", r.error.getMessage());
+
+    Recorder bad = new Recorder(0);
+    new FormPublisher(new StringReader("1"), 4096, ReaderOptions.fromBindings(), Runnable::run).subscribe(bad);
+    bad.subscription.request(0);
+    assertTrue(bad.error instanceof IllegalArgumentException);
+  }
+
+  @Test
+  public void testSingleSubscriber() {
+    FormPublisher p = new FormPublisher(new StringReader("1"), 4096, ReaderOptions.fromBindings(), Runnable::run);
+    p.subscribe(new Recorder(1));
+    Recorder second = new Recorder(1);
+    p.subscribe(second);
+    assertTrue(second.error instanceof IllegalStateException);
+  }
+}
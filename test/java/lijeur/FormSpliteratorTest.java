@@ -0,0 +1,98 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormSpliteratorTest {
+
+  // Top-level forms whose text trips a naive splitter: prefixes spanning whitespace,
+  // delimiters inside strings, comments and char literals, and nil.
+  private static final String[] FORMS = {
+      "(defn f [x] (+ x 1))", "^{:doc \"a (b\"}\n(def y 2)", "#_ (ignored)\n:kw", "nil",
+      "\"str ) ] } ; \\\" \\\\\"", "[\\( \\) \\\" \\;]", "; comment (\n{:a 1}", "#inst \"2020-01-01\"",
+      "' (quoted form)", "#:ns{:a 1}", "#\"re\\\"gex\"", "#{1 2 3}", "##Inf", "`(a ~b ~@c)",
+      "foo#!bar", "#::{:x 1}", "@deref", "#'var", "42", "-1.5e3", "\\newline", "1#_ x", "-2#{3}"};
+
+  private static String corpus(int n) {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < n; i++) sb.append(FORMS[i % FORMS.length]).append(i % 3 == 0 ? "\n" : " ");
+    return sb.toString();
+  }
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  @Test
+  public void testEveryBoundaryIsSafe() throws IOException {
+    String s = corpus(FORMS.length * 2);
+    List<Object> expected = readAll(s);
+    for (int target = 1; target < s.length(); target++) {
+      int b = FormBoundaries.next(s, 0, s.length(), target, false);
+      if (b < 0) continue;
+      assertTrue(b >= target);
+      List<Object> actual = readAll(s.substring(0, b));
+      actual.addAll(readAll(s.substring(b)));
+      assertEquals(expected.toString(), actual.toString(), "split at " + b);
+    }
+  }
+
+  @Test
+  public void testParallelMatchesSequential() throws IOException {
+    String s = corpus(20000);
+    List<Object> expected = readAll(s);
+    FormSpliterator sp = new FormSpliterator(s, 0, s.length(), 64, ReaderOptions.fromBindings(), 256);
+    List<Object> actual = StreamSupport.stream(sp, true).collect(Collectors.toList());
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  @Test
+  public void testSplitting() {
+    String s = corpus(2000);
+    FormSpliterator sp = new FormSpliterator(s, 0, s.length(), 64, ReaderOptions.fromBindings(), 256);
+    long before = sp.estimateSize();
+    Spliterator<Object> front = sp.trySplit();
+    assertNotNull(front);
+    assertEquals(before, front.estimateSize() + sp.estimateSize());
+    assertEquals(Spliterator.ORDERED, sp.characteristics());
+    assertTrue(sp.tryAdvance(o -> {}));
+    assertNull(sp.trySplit(), "a started spliterator does not split");
+  }
+
+  @Test
+  public void testUnterminatedInputDoesNotSplit() {
+    String s = "(unclosed " + corpus(2000);
+    FormSpliterator sp = new FormSpliterator(s, 0, s.length(), 64, ReaderOptions.fromBindings(), 256);
+    assertNull(sp.trySplit());
+  }
+
+  @Test
+  public void testStreamSources() throws IOException {
+    String s = corpus(500);
+    List<Object> expected = readAll(s);
+    assertEquals(expected.toString(),
+        Reader2.stream(new StringReader(s)).collect(Collectors.toList()).toString());
+    Path f = Files.createTempFile("lijeur", ".edn");
+    try {
+      Files.writeString(f, s);
+      assertEquals(expected.toString(),
+          Reader2.stream(f).parallel().collect(Collectors.toList()).toString());
+    } finally {
+      Files.delete(f);
+    }
+  }
+}
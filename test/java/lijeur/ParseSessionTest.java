@@ -0,0 +1,107 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ParseSessionTest {
+
+  private static final String SRC =
+      "(ns a.b)\n\n;; comment\n(defn f [x] (+ x 1))\n#_(skipped)\n(def y \"str\")\nsym :kw 42 [1 2]\n";
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static void assertConsistent(ParseSession s) throws IOException {
+    assertNull(s.error());
+    assertEquals(readAll(s.text()), s.forms());
+    for (int i = 0; i < s.size(); i++) {
+      String t = s.text().substring(s.start(i), s.end(i));
+      assertEquals(readAll(t), List.of(s.form(i)), t);
+    }
+  }
+
+  @Test
+  public void testInitialParse() throws IOException {
+    ParseSession s = new ParseSession(SRC);
+    assertConsistent(s);
+    assertEquals(7, s.size());
+    assertEquals("(defn f [x] (+ x 1))", SRC.substring(s.start(1), s.end(1)));
+  }
+
+  @Test
+  public void testEditReusesUntouchedForms() throws IOException {
+    ParseSession s = new ParseSession(SRC);
+    List<Object> before = new ArrayList<>(s.forms());
+    int at = SRC.indexOf("1))");
+    s.edit(at, 1, "100");
+    assertConsistent(s);
+    assertEquals(1, s.lastReread);
+    assertSame(before.get(0), s.form(0));
+    assertNotSame(before.get(1), s.form(1));
+    for (int i = 2; i < before.size(); i++) assertSame(before.get(i), s.form(i));
+    assertEquals(SRC.indexOf("(def y") + 2, s.start(2));
+  }
+
+  @Test
+  public void testEditJoiningAndSplittingTokens() throws IOException {
+    ParseSession s = new ParseSession(SRC);
+    int at = SRC.indexOf(" :kw");
+    s.edit(at, 1, "");                     // sym:kw
+    assertConsistent(s);
+    s.edit(at, 0, "x");                    // symx:kw
+    assertConsistent(s);
+    s.edit(at, 0, " (");                   // sym (x:kw 42 [1 2]  -> unterminated list
+    assertNotNull(s.error());
+    assertEquals(4, s.size());
+    s.edit(s.text().length() - 1, 0, ")");
+    assertConsistent(s);
+  }
+
+  @Test
+  public void testUnterminatedStringSwallowsRest() throws IOException {
+    ParseSession s = new ParseSession(SRC);
+    int at = SRC.indexOf("sym");
+    s.edit(at, 0, "\"");
+    assertEquals("EOF while reading string", s.error().getMessage());
+    assertEquals(3, s.size());
+    assertEquals(s.text().length(), s.errorOffset());
+    s.edit(at, 1, "");
+    assertConsistent(s);
+    assertEquals(SRC, s.text());
+  }
+
+  @Test
+  public void testRandomEdits() throws IOException {
+    Random rnd = new Random(42);
+    String[] snippets = {" ", "(", ")", "[", "]", "\"", "x", "1", ";", "\n", "#_", ":k", "\\a", "{}", "'"};
+    ParseSession s = new ParseSession(SRC);
+    for (int i = 0; i < 2000; i++) {
+      String t = s.text();
+      int off = rnd.nextInt(t.length() + 1);
+      int removed = Math.min(rnd.nextInt(3), t.length() - off);
+      s.edit(off, removed, snippets[rnd.nextInt(snippets.length)]);
+      String expected;
+      try {
+        expected = readAll(s.text()).toString();
+      } catch (RuntimeException e) {
+        assertNotNull(s.error(), s.text());
+        assertEquals(e.getMessage(), s.error().getMessage());
+        continue;
+      }
+      assertNull(s.error(), s.text());
+      assertEquals(expected, s.forms().toString(), s.text());
+      if (t.length() > 400) s = new ParseSession(SRC);
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PushParserTest {
+
+  private static final String CORPUS =
+      "(defn f [x] (+ x 1)) ^{:doc \"a (b\"}\n(def y 2) #_ (ignored)\n:kw nil \"str ) ] } ; \\\" \\\\\" "
+      + "[\\( \\) \\\" \\; \\newline \\u00e9] ; comment (\n{:a 1} #inst \"2020-01-01\" ' (quoted) "
+      + "#:ns{:a 1} #\"re\\\"gex\" #{1 2 3} ##Inf `(a ~b ~@c) foo#!bar #::{:x 1} @deref #'var "
+      + "42 -1.5e3 \"café 😀\" sym-at-end";
+
+  private static List<Object> readAll(String s) throws IOException {
+    List<Object> out = new ArrayList<>();
+    Reader2 r = new Reader2(new StringReader(s));
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  @Test
+  public void testCharChunks() throws IOException {
+    String expected = readAll(CORPUS).toString();
+    Random rnd = new Random(1);
+    for (int round = 0; round < 200; round++) {
+      int max = 1 + rnd.nextInt(round < 100 ? 4 : 64);
+      PushParser p = new PushParser();
+      List<Object> out = new ArrayList<>();
+      for (int i = 0; i < CORPUS.length(); ) {
+        int j = Math.min(CORPUS.length(), i + 1 + rnd.nextInt(max));
+        out.addAll(p.feed(CORPUS.substring(i, j)));
+        i = j;
+      }
+      out.addAll(p.finish());
+      assertEquals(expected, out.toString());
+    }
+  }
+
+  @Test
+  public void testNumbersEndAtAnyMacroAcrossChunks() throws IOException {
+    // A number token ends at #, ' and % too, unlike a symbol's: 1#_ x is 1 with x discarded.
+    for (String s : new String[]{"1#{2}", "1#_ x", "[1#_ 2 3]", "-1#{2} +2#_ x 3", "4'q 5%", "a#b 6#\"r\""}) {
+      String expected = readAll(s).toString();
+      for (int cut = 0; cut <= s.length(); cut++) {
+        PushParser p = new PushParser();
+        List<Object> out = new ArrayList<>(p.feed(s.substring(0, cut)));
+        out.addAll(p.feed(s.substring(cut)));
+        out.addAll(p.finish());
+        assertEquals(expected, out.toString(), s + " cut at " + cut);
+      }
+    }
+  }
+
+  @Test
+  public void testByteChunksSplitCodePoints() throws IOException {
+    String expected = readAll(CORPUS).toString();
+    byte[] bytes = CORPUS.getBytes(StandardCharsets.UTF_8);
+    for (int size = 1; size <= 7; size++) {
+      PushParser p = new PushParser();
+      List<Object> out = new ArrayList<>();
+      for (int i = 0; i < bytes.length; i += size)
+        out.addAll(p.feed(ByteBuffer.wrap(bytes, i, Math.min(size, bytes.length - i))));
+      out.addAll(p.finish());
+      assertEquals(expected, out.toString());
+    }
+  }
+
+  @Test
+  public void testFormsAreReturnedAsSoonAsComplete() {
+    PushParser p = new PushParser();
+    assertEquals(List.of(), p.feed("(a [b"));
+    assertEquals(List.of(), p.feed("] \"c)"));
+    assertEquals("[(a [b] \"c)\")]", p.feed("\")").toString());
+    assertEquals(List.of(), p.feed(" 12"), "a token may go on in the next chunk");
+    assertEquals(List.of(), p.feed("3"));
+    assertEquals("[123]", p.feed(" ").toString());
+    assertEquals(List.of(), p.feed("^:m ' "));
+    assertEquals("[(quote x)]", p.feed("x ").toString());
+    assertEquals(List.of(), p.feed("tail"));
+    assertEquals("[tail]", p.finish().toString());
+  }
+
+  @Test
+  public void testErrors() {
+    PushParser p = new PushParser();
+    assertEquals("[1, 2]", p.feed("1 2 ) 3").toString());
+    RuntimeException e = assertThrows(RuntimeException.class, () -> p.feed("4"));
+    assertEquals("Unmatched delimiter: )", e.getMessage());
+    assertSame(e, assertThrows(RuntimeException.class, p::finish));
+
+    PushParser q = new PushParser();
+    assertEquals("[1]", q.feed("1 (a \"b").toString());
+    e = assertThrows(RuntimeException.class, q::finish);
+    assertEquals("EOF while reading string", e.getMessage());
+
+    PushParser done = new PushParser();
+    done.finish();
+    assertThrows(IllegalStateException.class, () -> done.feed("1"));
+  }
+}
@@ -0,0 +1,54 @@
+package lijeur;
+
+import clojure.lang.ITransientVector;
+import clojure.lang.PersistentVector;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class Reader2BatchTest {
+
+  private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 4096};
+
+  @Test
+  public void testArrayBatches() throws IOException {
+    for (int chunk : CHUNK_SIZES) {
+      Reader2 r = new Reader2(new StringReader("1 :a \"s\" [2] ; comment\n nil #_x (3)"), chunk);
+      Object[] out = new Object[4];
+      assertEquals(4, r.readBatch(out, 4));
+      assertArrayEquals(new Object[]{1L, clojure.lang.Keyword.intern("a"), "s", PersistentVector.create(2L)}, out);
+      assertEquals(2, r.readBatch(out, 4));   // short batch: end of input reached
+      assertNull(out[0]);
+      assertEquals(clojure.lang.PersistentList.create(java.util.Arrays.asList(3L)), out[1]);
+      assertEquals(0, r.readBatch(out, 4));
+    }
+  }
+
+  @Test
+  public void testTransientBatches() throws IOException {
+    for (int chunk : CHUNK_SIZES) {
+      Reader2 r = new Reader2(new StringReader("1 2 3 4 5"), chunk);
+      ITransientVector acc = PersistentVector.EMPTY.asTransient();
+      acc = r.readBatch(acc, 2);
+      assertEquals(2, acc.count());
+      acc = r.readBatch(acc, 10);
+      assertEquals(5, acc.count());           // short batch: end of input reached
+      assertEquals(PersistentVector.create(1L, 2L, 3L, 4L, 5L), acc.persistent());
+    }
+  }
+
+  @Test
+  public void testReadDisallowed() {
+    clojure.lang.Var.pushThreadBindings(clojure.lang.RT.map(
+        clojure.lang.RT.var("clojure.core", "*read-eval*"), clojure.lang.Keyword.intern("unknown")));
+    try {
+      Reader2 r = new Reader2(new StringReader("1"));
+      assertThrows(RuntimeException.class, () -> r.readBatch(new Object[1], 1));
+    } finally {
+      clojure.lang.Var.popThreadBindings();
+    }
+  }
+}
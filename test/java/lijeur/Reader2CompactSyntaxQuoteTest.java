@@ -0,0 +1,120 @@
+package lijeur;
+
+import clojure.lang.IFn;
+import clojure.lang.Namespace;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import clojure.lang.Var;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the compact syntax-quote expansion: the shapes it emits, and that every expansion
+ * evaluates to what {@code LispReader}'s does.
+ */
+public class Reader2CompactSyntaxQuoteTest {
+
+  private static final IFn EVAL = RT.var("clojure.core", "eval");
+
+  // The expected expansions name user/..., so read in user, which a plain JVM has not created.
+  @BeforeEach
+  public void enterUser() {
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, Namespace.findOrCreate(Symbol.intern("user"))));
+    RT.var("clojure.core", "refer").invoke(Symbol.intern("clojure.core"));
+  }
+
+  @AfterEach
+  public void leave() {
+    Var.popThreadBindings();
+  }
+
+  // Evaluates an expansion; a nested syntax-quote's expansion is code, so evaluate that too.
+  private static Object eval(Object form, String source) {
+    Object v = EVAL.invoke(form);
+    return source.startsWith("``") ? EVAL.invoke(v) : v;
+  }
+
+  private static Object read(String s, boolean compact) throws IOException {
+    ReaderOptions opts = ReaderOptions.fromBindings().withCompactSyntaxQuote(compact);
+    return new Reader2(new StringReader(s), 4096, opts).read();
+  }
+
+  private static void assertExpands(String expected, String input) throws IOException {
+    assertEquals(RT.readString(expected), read(input, true), input);
+  }
+
+  @Test
+  public void testShapes() throws IOException {
+    assertExpands("'(user/a user/b 1 :k \"s\")", "`(a b 1 :k \"s\")");
+    assertExpands("'[user/a [user/b {:c user/d}] #{1}]", "`[a [b {:c d}] #{1}]");
+    assertExpands("(clojure.core/list 'user/a x)", "`(a ~x)");
+    assertExpands("(clojure.core/vector 1 (clojure.core/list 'user/f x))", "`[1 (f ~x)]");
+    assertExpands("(clojure.core/hash-map :a x)", "`{:a ~x}");
+    assertExpands("(clojure.core/hash-set x)", "`#{~x}");
+    assertExpands("(clojure.core/seq (clojure.core/concat '(user/a) xs '(user/b 2)))", "`(a ~@xs b 2)");
+    assertExpands("(clojure.core/seq (clojure.core/concat (clojure.core/list 'user/a y) xs))", "`(a ~y ~@xs)");
+    assertExpands("(clojure.core/apply clojure.core/vector (clojure.core/seq (clojure.core/concat xs ys)))",
+        "`[~@xs ~@ys]");
+    assertExpands("(clojure.core/seq (clojure.core/concat (clojure.core/list x) x))", "`(~x ~@x)");
+    assertExpands("'()", "`()");
+    assertExpands("'user/a", "`a");
+  }
+
+  @Test
+  public void testEvaluatesLikeLispReader() throws IOException {
+    for (String s : new String[]{
+        "`(a b 1 :k \"s\" \\c nil true 2.5)",
+        "`[a (b ~(+ 1 2)) {:k ~(str \"v\")} #{~(inc 1)}]",
+        "`(let [x 1] (+ x ~@(range 3) ~(* 2 2)))",
+        "`(a ~@[] b)",
+        "`[~@(list 1 2) 3 ~@(list 4)]",
+        "`{:a 1 ~@[:b 2] ~@[]}",
+        "`#{1 ~@[2 3]}",
+        "`(a ~'b ~:c)",
+        "`()",
+        "`[]",
+        "`(quote a)",
+        "`(if ~(= 1 1) (recur) (do))",
+        "``(a ~~(+ 1 2) ~@[1])",
+        "`(def ~(with-meta 'x {:k 1}) ^:private [^String s])",
+        "`^{:tag ~(symbol \"long\")} (f)",
+    }) {
+      Object expected = eval(RT.readString(s), s);
+      Object actual = eval(read(s, true), s);
+      assertEquals(expected, actual, s);
+      assertEquals(RT.meta(expected), RT.meta(actual), s + " (meta)");
+      assertEquals(eval(read(s, false), s), expected, s + " (LispReader mode)");
+    }
+  }
+
+  @Test
+  public void testGensymsStayConsistent() throws IOException {
+    Object v = EVAL.invoke(read("`(let [x# 1] [x# ~@[2] x#])", true));
+    Object binding = RT.first(RT.second(v));
+    Object body = RT.nth(v, 2);
+    assertEquals(binding, RT.nth(body, 0));
+    assertEquals(binding, RT.nth(body, 2));
+  }
+
+  @Test
+  public void testSmallerThanLispReader() throws IOException {
+    String s = "`(let [x# ~v] (when-not (nil? x#) (do (println \"x\" x#) ~@body (inc x#))))";
+    int faithful = size(read(s, false));
+    int compact = size(read(s, true));
+    assertTrue(compact * 2 < faithful, compact + " vs " + faithful);
+  }
+
+  // Number of forms in a tree.
+  private static int size(Object form) {
+    int n = 1;
+    if (form instanceof clojure.lang.IPersistentCollection)
+      for (clojure.lang.ISeq s = RT.seq(form); s != null; s = s.next()) n += size(s.first());
+    return n;
+  }
+}
@@ -0,0 +1,83 @@
+package lijeur;
+
+import clojure.lang.EdnReader;
+import clojure.lang.IPersistentMap;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.PushbackReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@link ReaderOptions#withEdn} reads what {@code EdnReader} reads, and rejects
+ * the rest with the same messages.
+ */
+public class Reader2EdnTest {
+
+  private static final Object EOF = new Object();
+
+  private static final IPersistentMap EDN_OPTS = RT.map(Keyword.intern("eof"), EOF);
+
+  private static final ReaderOptions EDN =
+      new ReaderOptions(null, null, EOF, false, null).withEdn(true);
+
+  // All the forms of s, or the message of the exception reading them threw.
+  private static Object readAll(String s, int chunk) {
+    List<Object> forms = new ArrayList<>();
+    try {
+      Reader2 r = new Reader2(new StringReader(s), chunk, EDN);
+      for (Object o; (o = r.read()) != EOF; ) forms.add(o);
+    } catch (IOException | RuntimeException e) {
+      return e.getMessage();
+    }
+    return RT.printString(forms);
+  }
+
+  private static Object readAllEdn(String s) {
+    List<Object> forms = new ArrayList<>();
+    try {
+      PushbackReader r = new PushbackReader(new StringReader(s));
+      for (Object o; (o = EdnReader.read(r, EDN_OPTS)) != EOF; ) forms.add(o);
+    } catch (RuntimeException e) {
+      return e.getMessage();
+    }
+    return RT.printString(forms);
+  }
+
+  @Test
+  public void testMatchesEdnReader() {
+    String[] inputs = {
+        "'a", "a'b", "[a'b 'c]", "%", "%1 a%b", "'", ":a'b", "x/'",
+        "`a", "@x", "~x", "~@x", "a@b", "a~b", "a`b", "[a b@]", "\\a@", "\\a'",
+        "1'", "1@", "1%", "-1`", "1#{2}", "1.5~",
+        "::foo", ":a/b", "::a/b", "#:a{:b 1}", "#::{:b 1}", "#::s{:b 1}",
+        "#(inc %)", "#'x", "#\"x\"", "#=(+ 1 2)", "#?(:clj 1)", "#!x\n1", "#<x>",
+        "#_ 'x 1", "^:m [1]", "^{:a 1} x", "##Inf", "#{1 2}", "#inst \"2020\"",
+        "#uuid \"00000000-0000-0000-0000-000000000000\"",
+        "(1 \"s\" \\c nil true false) {:k [1.5M 2N 3/4]}", "",
+    };
+    for (String s : inputs) {
+      Object expected = readAllEdn(s);
+      assertEquals(expected, readAll(s, Reader2.DEFAULT_CHUNK_SIZE), s);
+      assertEquals(expected, readAll(s, 1), s + " (1-char chunks)");
+    }
+  }
+
+  @Test
+  public void testClojureSyntaxStillReadsByDefault() throws IOException {
+    ReaderOptions clj = new ReaderOptions(null, null, EOF, false, null);
+    assertEquals(RT.list(Symbol.intern("quote"), Symbol.intern("a")),
+        new Reader2(new StringReader("'a"), Reader2.DEFAULT_CHUNK_SIZE, clj).read());
+    assertEquals(RT.list(Symbol.intern("clojure.core", "deref"), Symbol.intern("x")),
+        new Reader2(new StringReader("@x"), Reader2.DEFAULT_CHUNK_SIZE, clj).read());
+    assertEquals(Symbol.intern("'a"),
+        new Reader2(new StringReader("'a"), Reader2.DEFAULT_CHUNK_SIZE, clj.withEdn(true)).read());
+  }
+}
@@ -0,0 +1,74 @@
+package lijeur;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@link Reader2#reportErrorPositions} turns read errors into
+ * {@link ReaderException}s located where reading stopped, whatever the chunk size.
+ */
+public class Reader2ErrorPositionTest {
+
+  private static ReaderException fail(String s, int chunk) {
+    Reader2 r = new Reader2(new StringReader(s), chunk);
+    r.reportErrorPositions("in.edn");
+    return assertThrows(ReaderException.class, () -> {
+      while (r.read() != Reader2.EOF) { }
+    });
+  }
+
+  @Test
+  public void testPositions() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 500; i++) sb.append("(form ").append(i).append(" \"str\")\n");
+    sb.append("\r\n[a\r  1.2.3]");                // \r\n is one break, a lone \r another
+    for (int chunk : new int[]{1, 7, 64, 4096}) {
+      ReaderException e = fail(sb.toString(), chunk);
+      assertEquals("in.edn", e.getFile());
+      assertEquals(503, e.getLine(), "chunk=" + chunk);
+      assertEquals(8, e.getColumn(), "chunk=" + chunk);   // just past the token
+      assertEquals("Invalid number: 1.2.3", e.getCause().getMessage());
+      assertEquals("in.edn [line 503, col 8] Invalid number: 1.2.3", e.getMessage());
+    }
+  }
+
+  @Test
+  public void testEndOfInput() {
+    ReaderException e = fail("(a\n  (b", 2);
+    assertEquals(2, e.getLine());
+    assertEquals(5, e.getColumn());
+    assertEquals("EOF while reading", e.getCause().getMessage());
+  }
+
+  @Test
+  public void testBatchAndLineNumbers() throws IOException {
+    Reader2 r = new Reader2(new StringReader("1\n2\n)"), 1, ReaderOptions.fromBindings(), true);
+    r.reportErrorPositions(null);
+    Object[] out = new Object[8];
+    ReaderException e = assertThrows(ReaderException.class, () -> r.readBatch(out, 8));
+    assertEquals(3, e.getLine());
+    assertEquals(1, e.getColumn());
+    assertNull(e.getFile());
+  }
+
+  @Test
+  public void testOffByDefault() {
+    RuntimeException e = assertThrows(RuntimeException.class,
+        () -> new Reader2(new StringReader("(a")).read());
+    assertFalse(e instanceof ReaderException);
+    assertEquals("EOF while reading", e.getMessage());
+  }
+
+  @Test
+  public void testMustStartBeforeInputIsDropped() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 100; i++) sb.append(i).append(' ');
+    Reader2 r = new Reader2(new StringReader(sb.toString()), 4);
+    for (int i = 0; i < 50; i++) r.read();
+    assertThrows(IllegalStateException.class, () -> r.reportErrorPositions(null));
+  }
+}
@@ -0,0 +1,89 @@
+package lijeur;
+
+import clojure.lang.IPersistentMap;
+import clojure.lang.Keyword;
+import clojure.lang.LineNumberingPushbackReader;
+import clojure.lang.LispReader;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies {@link Reader2}'s source position metadata: :line/:column on lists against
+ * LispReader over a LineNumberingPushbackReader, and the end positions Reader2 adds.
+ */
+public class Reader2LineNumberTest {
+
+  private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 4096};
+  private static final Keyword LINE = Keyword.intern("line");
+  private static final Keyword COLUMN = Keyword.intern("column");
+  private static final Keyword END_LINE = Keyword.intern("end-line");
+  private static final Keyword END_COLUMN = Keyword.intern("end-column");
+
+  private static final String SOURCE =
+      "(ns foo)\n\n(defn f\n  [x]\r\n  (+ x 1))\r  ^:private (g)\n"
+      + "; comment\n  (a \"multi\nline\" (b\n c))\t(d) ^{:x 1} (e)\n(f ^:m (h))";
+
+  private static List<Object> lispReadAll(String s) {
+    LineNumberingPushbackReader r = new LineNumberingPushbackReader(new StringReader(s));
+    Object eof = new Object();
+    List<Object> out = new ArrayList<>();
+    for (Object o; (o = LispReader.read(r, false, eof, false)) != eof; ) out.add(o);
+    return out;
+  }
+
+  private static List<Object> reader2ReadAll(String s, int chunk) throws IOException {
+    Reader2 r = new Reader2(new StringReader(s), chunk, ReaderOptions.fromBindings(), true);
+    List<Object> out = new ArrayList<>();
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  // Collects the :line/:column of every list, depth first.
+  private static void listPositions(Object form, List<Object> out) {
+    if (form instanceof clojure.lang.ISeq) {
+      IPersistentMap m = RT.meta(form);
+      out.add(m == null ? null : RT.vector(m.valAt(LINE), m.valAt(COLUMN)));
+    }
+    if (form instanceof java.util.Collection)
+      for (Object o : (java.util.Collection<?>) form) listPositions(o, out);
+  }
+
+  @Test
+  public void testListPositionsMatchLispReader() throws IOException {
+    List<Object> expected = new ArrayList<>();
+    for (Object o : lispReadAll(SOURCE)) listPositions(o, expected);
+    for (int chunk : CHUNK_SIZES) {
+      List<Object> actual = new ArrayList<>();
+      for (Object o : reader2ReadAll(SOURCE, chunk)) listPositions(o, actual);
+      assertEquals(expected, actual, "chunk=" + chunk);
+    }
+  }
+
+  @Test
+  public void testEndPositionsAndOtherForms() throws IOException {
+    for (int chunk : CHUNK_SIZES) {
+      List<Object> forms = reader2ReadAll("[a\n  {:k #{b}}]", chunk);
+      clojure.lang.IPersistentVector v = (clojure.lang.IPersistentVector) forms.get(0);
+      assertEquals(RT.map(LINE, 1, COLUMN, 1, END_LINE, 2, END_COLUMN, 13), RT.meta(v));
+      assertEquals(RT.map(LINE, 1, COLUMN, 2, END_LINE, 1, END_COLUMN, 3), RT.meta(v.nth(0)));
+      Object m = v.nth(1);
+      assertEquals(RT.map(LINE, 2, COLUMN, 3, END_LINE, 2, END_COLUMN, 12), RT.meta(m));
+      Object set = RT.get(m, Keyword.intern("k"));
+      assertEquals(RT.map(LINE, 2, COLUMN, 7, END_LINE, 2, END_COLUMN, 11), RT.meta(set));
+      assertEquals(Symbol.intern("b"), RT.first(set));
+    }
+  }
+
+  @Test
+  public void testOffByDefault() throws IOException {
+    assertNull(RT.meta(new Reader2(new StringReader("(a b)")).read()));
+  }
+}
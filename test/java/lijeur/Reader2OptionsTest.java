@@ -0,0 +1,63 @@
+package lijeur;
+
+import clojure.lang.AFn;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import clojure.lang.Var;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@link Reader2} reads its dynamic-Var state from the {@link ReaderOptions}
+ * captured at construction, and re-captures it only on {@link Reader2#refreshOptions()}.
+ */
+public class Reader2OptionsTest {
+
+  private static final Var READ_EVAL = RT.var("clojure.core", "*read-eval*");
+
+  @Test
+  public void testBindingsCapturedAtConstruction() throws IOException {
+    Reader2 r = new Reader2(new StringReader("1 2"));
+    Var.pushThreadBindings(RT.map(READ_EVAL, Keyword.intern("unknown")));
+    try {
+      assertEquals(1L, r.read());                      // still the snapshot's *read-eval*
+      r.refreshOptions();
+      assertThrows(RuntimeException.class, r::read);
+    } finally {
+      Var.popThreadBindings();
+    }
+  }
+
+  @Test
+  public void testFromMap() throws IOException {
+    AFn twice = new AFn() {
+      @Override public Object invoke(Object form) { return ((Long) form) * 2; }
+    };
+    AFn dflt = new AFn() {
+      @Override public Object invoke(Object tag, Object form) { return RT.vector(tag, form); }
+    };
+    Keyword done = Keyword.intern("done");
+    ReaderOptions opts = ReaderOptions.fromMap(RT.map(
+        Keyword.intern("readers"), RT.map(Symbol.intern("twice"), twice),
+        Keyword.intern("default"), dflt,
+        Keyword.intern("eof"), done));
+    Reader2 r = new Reader2(new StringReader("#twice 21 #other 1 #inst \"2020-01-01\""), 4096, opts);
+    assertEquals(42L, r.read());
+    assertEquals(RT.vector(Symbol.intern("other"), 1L), r.read());
+    assertTrue(r.read() instanceof java.util.Date);   // built-in readers still apply
+    assertSame(done, r.read());
+  }
+
+  @Test
+  public void testNamespace() throws IOException {
+    ReaderOptions opts = ReaderOptions.fromBindings()
+        .withNamespace(clojure.lang.Namespace.findOrCreate(Symbol.intern("clojure.core")));
+    assertEquals(Keyword.intern("clojure.core", "x"),
+        new Reader2(new StringReader("::x"), 4096, opts).read());
+  }
+}
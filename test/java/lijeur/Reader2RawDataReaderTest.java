@@ -0,0 +1,87 @@
+package lijeur;
+
+import clojure.lang.PersistentVector;
+import clojure.lang.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies {@link Reader2}'s {@link RawDataReader} tags, at several buffer chunk sizes so
+ * the raw char ranges are exercised across refills and compaction.
+ */
+public class Reader2RawDataReaderTest {
+
+  private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 4096};
+
+  private static final RawDataReader DECIMAL =
+      (chars, start, end, string) -> new BigDecimal(chars, start, end - start);
+
+  // #geo [lat lon] -> double[]{lat, lon}, pulling both elements from the cursor.
+  private static final RawDataReader GEO = new RawDataReader() {
+    @Override
+    public Object readChars(char[] chars, int start, int end, boolean string) {
+      throw new RuntimeException("#geo needs a vector");
+    }
+
+    @Override
+    public Object readCollection(int open, Cursor elements) throws IOException {
+      double lat = ((Number) elements.next()).doubleValue();
+      double lon = ((Number) elements.next()).doubleValue();
+      return new double[]{lat, lon};
+    }
+  };
+
+  private static Reader2 reader(String input, int chunk) {
+    Reader2 r = new Reader2(new StringReader(input), chunk);
+    r.registerRawReader(Symbol.intern("decimal"), DECIMAL);
+    r.registerRawReader(Symbol.intern("geo"), GEO);
+    r.registerRawReader(Symbol.intern("raw"), (chars, start, end, string) ->
+        (string ? "s:" : "t:") + new String(chars, start, end - start));
+    return r;
+  }
+
+  @Test
+  public void testStringAndToken() throws IOException {
+    for (int chunk : CHUNK_SIZES) {
+      Reader2 r = reader("#decimal \"1.50\" #decimal 2.25 #raw \"a\\nb\" #raw foo/bar", chunk);
+      assertEquals(new BigDecimal("1.50"), r.read());
+      assertEquals(new BigDecimal("2.25"), r.read());
+      assertEquals("s:a\nb", r.read());
+      assertEquals("t:foo/bar", r.read());
+      assertSame(Reader2.EOF, r.read());
+    }
+  }
+
+  @Test
+  public void testCollection() throws IOException {
+    for (int chunk : CHUNK_SIZES) {
+      Reader2 r = reader("[#geo [1.5 -2] #geo [3 4 5 6] :after]", chunk);
+      PersistentVector v = (PersistentVector) r.read();
+      assertArrayEquals(new double[]{1.5, -2}, (double[]) v.nth(0));
+      // elements left unread by the raw reader are dropped, not left in the stream
+      assertArrayEquals(new double[]{3, 4}, (double[]) v.nth(1));
+      assertEquals(clojure.lang.Keyword.intern("after"), v.nth(2));
+      assertEquals(3, v.count());
+    }
+  }
+
+  @Test
+  public void testUnregisteredTagsStillUseDataReaders() throws IOException {
+    Object inst = reader("#inst \"2020-01-01\"", 4096).read();
+    assertTrue(inst instanceof java.util.Date);
+  }
+
+  @Test
+  public void testErrors() {
+    assertThrows(RuntimeException.class, () -> reader("#decimal", 4096).read());
+    assertThrows(RuntimeException.class, () -> reader("#decimal \"1.5", 4096).read());
+    assertThrows(RuntimeException.class, () -> reader("#decimal [1]", 4096).read());
+    assertThrows(RuntimeException.class, () -> reader("#decimal 'x", 4096).read());
+    assertThrows(RuntimeException.class, () -> reader("#geo [1 2", 4096).read());
+  }
+}
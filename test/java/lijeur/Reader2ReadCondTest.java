@@ -0,0 +1,166 @@
+package lijeur;
+
+import clojure.lang.AFn;
+import clojure.lang.IPersistentMap;
+import clojure.lang.Keyword;
+import clojure.lang.LineNumberingPushbackReader;
+import clojure.lang.LispReader;
+import clojure.lang.RT;
+import clojure.lang.ReaderConditional;
+import clojure.lang.Symbol;
+import clojure.lang.TaggedLiteral;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies {@code #?} and {@code #?@} against {@code LispReader}'s behaviour in {@code :allow}
+ * and {@code :preserve} modes.
+ */
+public class Reader2ReadCondTest {
+
+  private static final Keyword CLJ = Keyword.intern("clj");
+  private static final Keyword CLJS = Keyword.intern("cljs");
+
+  private static ReaderOptions opts(String mode, Keyword... features) {
+    return ReaderOptions.fromBindings()
+        .withReadCond(Keyword.intern(mode), RT.set((Object[]) features));
+  }
+
+  private static List<Object> readAll(String s, ReaderOptions opts) throws IOException {
+    Reader2 r = new Reader2(new StringReader(s), 4096, opts);
+    List<Object> out = new ArrayList<>();
+    for (Object o; (o = r.read()) != Reader2.EOF; ) out.add(o);
+    return out;
+  }
+
+  private static Object read(String s, ReaderOptions opts) throws IOException {
+    return new Reader2(new StringReader(s), 4096, opts).read();
+  }
+
+  private static String error(String s, ReaderOptions opts) {
+    return assertThrows(RuntimeException.class, () -> readAll(s, opts)).getMessage();
+  }
+
+  @Test
+  public void testNotAllowedByDefault() {
+    assertEquals("Conditional read not allowed", error("#?(:clj 1)", ReaderOptions.fromBindings()));
+  }
+
+  @Test
+  public void testAllowSelectsFirstMatch() throws IOException {
+    ReaderOptions o = opts("allow", CLJ);
+    assertEquals(1L, read("#?(:clj 1 :cljs 2)", o));
+    assertEquals(2L, read("#?(:cljs 1 :clj 2)", o));
+    assertEquals(3L, read("#?(:cljs 1 :default 3 :clj 2)", o));
+    assertEquals(2L, read("#?(:clj 2 :default 3)", o));
+    assertEquals(RT.vector(1L, 3L), read("[1 #?(:cljs 2) 3]", o));
+    assertEquals(RT.list(Symbol.intern("a"), 5L), read("(a #?(:clj #?(:cljs 4 :clj 5)))", o));
+  }
+
+  @Test
+  public void testNoMatchReadsNothing() throws IOException {
+    ReaderOptions o = opts("allow", CLJ);
+    assertEquals(List.of(7L), readAll("#?(:cljs 1) 7", o));
+    assertEquals(List.of(), readAll("#?(:cljs 1)", o));
+    assertEquals(List.of(8L), readAll("#?() 8", o));
+  }
+
+  @Test
+  public void testNilBranchIsAMatch() throws IOException {
+    ReaderOptions o = opts("allow", CLJ);
+    IPersistentMap lisp = RT.map(Keyword.intern("read-cond"), Keyword.intern("allow"));
+    for (String s : new String[]{"[#?(:clj nil) 1]", "#?(:clj nil :default 1)",
+        "[#?(:cljs 1 :clj nil :default 2) 3]", "[#?(:default nil :clj 1) 2]", "[1 #?@(:clj [nil]) 2]",
+        "[#?@(:cljs [1] :clj [nil nil] :default [2]) 3]"}) {
+      assertEquals(LispReader.read(new LineNumberingPushbackReader(new StringReader(s)), lisp), read(s, o), s);
+    }
+    assertEquals(RT.vector(null, 1L), read("[#?(:clj nil) 1]", o));
+    assertNull(read("#?(:clj nil :default 1)", o));
+    assertEquals(Arrays.asList(null, 2L), readAll("#?(:clj nil) 2", o));
+    assertEquals(RT.vector(null, 3L), read("[#?(:cljs 1 :clj nil :default 2) 3]", o));
+    assertEquals(RT.vector(1L, null, 2L), read("[1 #?@(:clj [nil]) 2]", o));
+    // a nil spliced is a match that is not a list, as in LispReader
+    assertEquals("Spliced form list in read-cond-splicing must implement java.util.List",
+        error("[1 #?@(:clj nil :default [2]) 3]", o));
+  }
+
+  @Test
+  public void testSplicing() throws IOException {
+    ReaderOptions o = opts("allow", CLJ);
+    assertEquals(RT.list(1L, 2L, 3L, 4L), read("(1 #?@(:clj [2 3]) 4)", o));
+    assertEquals(RT.vector(1L, 2L, 4L), read("[1 #?@(:cljs [9] :clj (2)) 4]", o));
+    assertEquals(RT.map(Keyword.intern("a"), 1L, Keyword.intern("b"), 2L),
+        read("{:a 1 #?@(:clj [:b 2])}", o));
+    assertEquals(RT.set(1L, 2L, 3L), read("#{1 #?@(:clj [2 3])}", o));
+    assertEquals(RT.vector(1L), read("[1 #?@(:clj [])]", o));
+    assertEquals(RT.vector(RT.vector(1L, 2L), 3L), read("[[#?@(:clj [1 2])] 3]", o));
+    assertEquals(RT.vector(5L), read("[#?@(:cljs [1 2])5]", o));
+  }
+
+  @Test
+  public void testSplicingErrors() {
+    ReaderOptions o = opts("allow", CLJ);
+    assertEquals("Reader conditional splicing not allowed at the top level.", error("#?@(:clj [1 2])", o));
+    assertEquals("Spliced form list in read-cond-splicing must implement java.util.List",
+        error("[#?@(:clj 1)]", o));
+  }
+
+  @Test
+  public void testSkippedBranchesAreOnlyScanned() throws IOException {
+    int[] calls = {0};
+    AFn dflt = new AFn() {
+      @Override public Object invoke(Object tag, Object form) { calls[0]++; return form; }
+    };
+    ReaderOptions o = ReaderOptions.fromMap(RT.map(
+        Keyword.intern("read-cond"), Keyword.intern("allow"),
+        Keyword.intern("default"), dflt));
+    // Unknown tags, unresolvable ::aliases and cljs-only syntax in other branches never reach
+    // the reader proper.
+    String src = "#?(:cljs #js {:a ::x/y :b #\"re\" :c \\a :d #?(:clj 1) :e ^:m [#_ 1 \"s)\"]}"
+        + " :clj [#foo 1] :default #bar 2)";
+    assertEquals(RT.vector(1L), read(src, o));
+    assertEquals(1, calls[0]);
+    assertEquals(RT.vector(1L, 2L), read("[#?(:cljs (a ; )\n b) :clj 1) 2]", o));
+    assertEquals(3L, read("#?(:cljs #:ns{:a 1} :cljs #(inc %) :cljs 'x :cljs `y :cljs ~@z :clj 3)", o));
+  }
+
+  @Test
+  public void testAllowErrors() {
+    ReaderOptions o = opts("allow", CLJ);
+    assertEquals("Feature name :else is reserved.", error("#?(:else 1)", o));
+    assertEquals("Feature should be a keyword: clj", error("#?(clj 1)", o));
+    assertEquals("read-cond requires an even number of forms.", error("#?(:clj)", o));
+    assertEquals("read-cond body must be a list", error("#?[:clj 1]", o));
+    assertEquals("EOF while reading character", error("#?", o));
+    assertEquals("EOF while reading", error("#?(:cljs (1 2", o));
+    assertEquals("EOF while reading", error("#?(:clj 1 :cljs", o));
+    assertEquals("EOF while reading string", error("#?(:cljs \"abc", o));
+    assertEquals("Unmatched delimiter: ]", error("#?(:cljs (1 2])", o));
+  }
+
+  @Test
+  public void testPreserve() throws IOException {
+    ReaderOptions o = opts("preserve");
+    Object rc = read("#?(:clj #foo 1 :cljs 2)", o);
+    assertEquals(ReaderConditional.create(
+        RT.list(CLJ, TaggedLiteral.create(Symbol.intern("foo"), 1L), CLJS, 2L), false), rc);
+    Object spliced = read("[#?@(:clj [1])]", o);
+    assertEquals(RT.vector(ReaderConditional.create(RT.list(CLJ, RT.vector(1L)), true)), spliced);
+    assertEquals("No reader function for tag foo", error("#foo 1", o));   // only inside #?
+  }
+
+  @Test
+  public void testFromMapAddsPlatformFeature() throws IOException {
+    ReaderOptions o = ReaderOptions.fromMap(RT.map(
+        Keyword.intern("read-cond"), Keyword.intern("allow"),
+        Keyword.intern("features"), RT.set(CLJS)));
+    assertEquals(RT.vector(1L, 2L), read("[#?(:clj 1) #?(:cljs 2)]", o));
+  }
+}
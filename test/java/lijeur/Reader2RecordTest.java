@@ -0,0 +1,100 @@
+package lijeur;
+
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import clojure.lang.Var;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies record and class literals against {@code LispReader}: {@code #Rec{...}} through
+ * {@code create}, {@code #Rec[...]} through the constructor of that arity, and the
+ * {@code *read-eval*} gate.
+ */
+public class Reader2RecordTest {
+
+  @BeforeAll
+  public static void defineRecords() {
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, RT.CURRENT_NS.deref()));
+    try {
+      RT.var("clojure.core", "eval").invoke(RT.readString(
+          "(do (ns lijeur.record-test)"
+              + " (defrecord Point [x ^long y])"
+              + " (deftype Pair [a b]"
+              + "   Object (equals [_ o] (and (instance? Pair o) (= a (.-a ^Pair o)) (= b (.-b ^Pair o))))))"));
+    } finally {
+      Var.popThreadBindings();
+    }
+  }
+
+  private static Object read(String s, ReaderOptions opts) throws IOException {
+    return new Reader2(new StringReader(s), 4096, opts).read();
+  }
+
+  private static Object read(String s) throws IOException {
+    return read(s, ReaderOptions.fromBindings());
+  }
+
+  @Test
+  public void testMatchesLispReader() throws IOException {
+    for (String s : new String[]{
+        "#lijeur.record_test.Point{:x 1 :y 2}",
+        "#lijeur.record_test.Point{:x 1 :y 2 :z 3}",
+        "#lijeur.record_test.Point[1 2]",
+        "#lijeur.record_test.Point[1 2.5]",                 // ^long y: coerced like Reflector
+        "#lijeur.record_test.Point[1 2 {:m 1} {:z 3}]",     // the meta/ext constructor
+        "#lijeur.record_test.Pair[:a [1 2]]",
+        "#java.net.URI[\"http://example.com\"]",           // String parameter: via Reflector
+    }) {
+      Object expected = RT.readString(s);
+      assertEquals(expected, read(s), s);
+      assertSame(expected.getClass(), read(s).getClass(), s);
+    }
+  }
+
+  @Test
+  public void testRepeatedLiteralsShareTheConstructor() throws IOException {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) sb.append("#lijeur.record_test.Point[").append(i).append(" 0] ");
+    Object v = read(sb.append(']').toString());
+    assertEquals(1000, RT.count(v));
+    assertEquals(999L, RT.get(RT.nth(v, 999), Keyword.intern("x")));
+  }
+
+  @Test
+  public void testErrors() {
+    String[][] cases = {
+        {"#lijeur.record_test.Point[1]", "Unexpected number of constructor arguments"},
+        {"#lijeur.record_test.Point{\"x\" 1}", "Unreadable defrecord form: key must be of type clojure.lang.Keyword, got x"},
+        {"#lijeur.record_test.Point 1", "Unreadable constructor form starting with \"#lijeur.record_test.Point\""},
+        {"#lijeur.record_test.Point[1 :a]", "Unexpected param type, expected: long"},
+    };
+    for (String[] c : cases) {
+      Throwable t = assertThrows(RuntimeException.class, () -> read(c[0]), c[0]);
+      assertTrue(t.getMessage().startsWith(c[1]), c[0] + ": " + t.getMessage());
+    }
+    assertThrows(Exception.class, () -> read("#no.such.Rec{:a 1}"));
+  }
+
+  @Test
+  public void testReadEvalGate() {
+    ReaderOptions off = new ReaderOptions(null, null, Reader2.EOF, false, null);
+    RuntimeException e = assertThrows(RuntimeException.class, () -> read("#lijeur.record_test.Point[1 2]", off));
+    assertEquals("Record construction syntax can only be used when *read-eval* == true", e.getMessage());
+  }
+
+  @Test
+  public void testPreservedInReaderConditional() throws IOException {
+    ReaderOptions o = ReaderOptions.fromBindings().withReadCond(Keyword.intern("preserve"), null);
+    Object rc = read("#?(:clj #lijeur.record_test.Point[1 2])", o);
+    assertEquals(RT.list(Keyword.intern("clj"),
+        clojure.lang.TaggedLiteral.create(Symbol.intern("lijeur.record_test.Point"), RT.vector(1L, 2L))),
+        ((clojure.lang.ReaderConditional) rc).form);
+  }
+}
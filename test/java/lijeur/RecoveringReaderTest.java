@@ -0,0 +1,88 @@
+package lijeur;
+
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@link RecoveringReader} reports each failed form with its position and still
+ * returns every form around it.
+ */
+public class RecoveringReaderTest {
+
+  private static RecoveringReader.Result read(String s) {
+    return new RecoveringReader().read(s);
+  }
+
+  @Test
+  public void testCleanInput() {
+    RecoveringReader.Result r = read("1 (a b) [c]");
+    assertTrue(r.ok());
+    assertEquals(List.of(1L, RT.list(Symbol.intern("a"), Symbol.intern("b")), RT.vector(Symbol.intern("c"))),
+        r.forms());
+  }
+
+  @Test
+  public void testErrorInsideWellDelimitedForm() {
+    RecoveringReader.Result r = read("(ok 1)\n(bad 1.2.3 \"x)\")\n  {:a 1 :a 2}\n:after");
+    assertEquals(List.of(RT.list(Symbol.intern("ok"), 1L), Keyword.intern("after")), r.forms());
+    assertEquals(2, r.diagnostics().size());
+    RecoveringReader.Diagnostic d = r.diagnostics().get(0);
+    assertEquals("Invalid number: 1.2.3", d.message());
+    assertEquals(2, d.line());
+    assertEquals(11, d.column());                // just past the token
+    assertEquals(17, d.offset());
+    assertEquals("2:11: Invalid number: 1.2.3", d.toString());
+    RecoveringReader.Diagnostic d2 = r.diagnostics().get(1);
+    assertTrue(d2.message().startsWith("Duplicate key"), d2.message());
+    assertEquals(3, d2.line());
+  }
+
+  @Test
+  public void testUnclosedFormResumesAtNextTopLevelLine() {
+    String src = "(defn a [x]\n  (let [y x]\n    y)\n\n(defn b [] 2)\n(defn c [] \"open\n(defn d [] 4)\n";
+    RecoveringReader.Result r = read(src);
+    assertEquals(2, r.forms().size());           // b and d
+    assertEquals(Symbol.intern("b"), RT.second(r.forms().get(0)));
+    assertEquals(Symbol.intern("d"), RT.second(r.forms().get(1)));
+    // a is unclosed, so the reader runs on into c's unclosed string
+    assertEquals(List.of("EOF while reading string", "EOF while reading string"),
+        r.diagnostics().stream().map(RecoveringReader.Diagnostic::message).toList());
+    assertEquals(8, r.diagnostics().get(0).line());   // reading stopped at the end
+  }
+
+  @Test
+  public void testUnmatchedDelimiterAndBadTag() {
+    RecoveringReader.Result r = read("1 ) 2 #nope [3] 4\r\n] 5");
+    assertEquals(List.of(1L, 2L, 4L, 5L), r.forms());
+    assertEquals(3, r.diagnostics().size());
+    assertEquals("Unmatched delimiter: )", r.diagnostics().get(0).message());
+    assertEquals("No reader function for tag nope", r.diagnostics().get(1).message());
+    assertEquals(2, r.diagnostics().get(2).line());
+    assertEquals(1, r.diagnostics().get(2).column());   // a stray closer is not consumed
+  }
+
+  @Test
+  public void testDiagnosticsAreBounded() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 50; i++) sb.append("1.2.3 ").append(i).append('\n');
+    RecoveringReader.Result r = new RecoveringReader(ReaderOptions.fromBindings(), 10).read(sb);
+    assertEquals(50, r.forms().size());
+    assertEquals(10, r.diagnostics().size());
+    assertEquals(40, r.suppressed());
+  }
+
+  @Test
+  public void testReader() throws IOException {
+    RecoveringReader.Result r = new RecoveringReader().read(new StringReader("[1 2] (3"));
+    assertEquals(List.of(RT.vector(1L, 2L)), r.forms());
+    assertEquals(1, r.diagnostics().size());
+  }
+}
@@ -0,0 +1,62 @@
+package lijeur;
+
+import clojure.lang.RT;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that {@code #"..."} literals read as {@code LispReader} reads them, and that a
+ * repeated literal is compiled once and shared.
+ */
+public class RegexCacheTest {
+
+  private static Object read(String s, int chunk) throws IOException {
+    return new Reader2(new StringReader(s), chunk).read();
+  }
+
+  @Test
+  public void testMatchesLispReader() throws IOException {
+    for (String s : new String[]{"#\"\"", "#\"a+b\"", "#\"\\d+\\.\\d*\"", "#\"say \\\"hi\\\"\"",
+        "#\"\\\\\"", "#\"[\\\\\\\"]\"", "#\"line\nbreak\""}) {
+      String expected = ((Pattern) RT.readString(s)).pattern();
+      for (int chunk : new int[]{1, 2, 3, 4096}) {
+        assertEquals(expected, ((Pattern) read(s, chunk)).pattern(), s + " (chunk=" + chunk + ")");
+      }
+    }
+  }
+
+  @Test
+  public void testRepeatedLiteralCompiledOnce() throws IOException {
+    StringBuilder sb = new StringBuilder("[");
+    for (int i = 0; i < 1000; i++) sb.append("#\"regex-cache-test-(\\\\d+)\" ");
+    sb.append(']');
+    Object v = read(sb.toString(), 64);
+    for (int i = 1; i < 1000; i++) assertSame(RT.nth(v, 0), RT.nth(v, i));
+    assertSame(RT.nth(v, 0), read("#\"regex-cache-test-(\\\\d+)\"", 4096));   // across readers
+  }
+
+  @Test
+  public void testLongLiteralsAreNotKept() {
+    RegexCache cache = new RegexCache(16);
+    char[] a = "x".repeat(RegexCache.MAX_LENGTH + 1).toCharArray();
+    assertNotSame(cache.get(a, 0, a.length), cache.get(a, 0, a.length));
+    char[] b = "x".repeat(RegexCache.MAX_LENGTH).toCharArray();
+    assertSame(cache.get(b, 0, b.length), cache.get(b, 0, b.length));
+  }
+
+  @Test
+  public void testErrors() {
+    RuntimeException e = assertThrows(RuntimeException.class, () -> read("#\"abc", 2));
+    assertEquals("EOF while reading regex", e.getMessage());
+    assertEquals("EOF while reading regex",
+        assertThrows(RuntimeException.class, () -> read("#\"abc\\", 4096)).getMessage());
+    assertThrows(PatternSyntaxException.class, () -> read("#\"(unclosed\"", 4096));
+    assertThrows(PatternSyntaxException.class, () -> read("#\"(unclosed\"", 4096));   // not cached
+  }
+}
@@ -0,0 +1,59 @@
+package lijeur;
+
+import clojure.lang.IPersistentMap;
+import clojure.lang.IPersistentVector;
+import clojure.lang.Keyword;
+import clojure.lang.RT;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SpanTableTest {
+
+  private static final int[] CHUNK_SIZES = {1, 2, 3, 7, 4096};
+
+  private static String text(String src, SpanTable t, Object form) {
+    return src.substring((int) t.start(form), (int) t.end(form));
+  }
+
+  @Test
+  public void testSpans() throws IOException {
+    String src = "  (defn f [x]\n  ;; c\n  {:a \"s\" :b #_(gone) sym}) 'q [x x]";
+    for (int chunk : CHUNK_SIZES) {
+      Reader2 r = new Reader2(new StringReader(src), chunk);
+      SpanTable t = r.trackSpans();
+      Object list = r.read();
+      Object quoted = r.read();
+      IPersistentVector v = (IPersistentVector) r.read();
+      assertEquals("(defn f [x]\n  ;; c\n  {:a \"s\" :b #_(gone) sym})", text(src, t, list));
+      IPersistentMap m = (IPersistentMap) RT.nth(list, 3);
+      assertEquals("{:a \"s\" :b #_(gone) sym}", text(src, t, m));
+      assertEquals("\"s\"", text(src, t, m.valAt(Keyword.intern("a"))));
+      assertEquals("sym", text(src, t, m.valAt(Keyword.intern("b"))));
+      assertEquals("[x]", text(src, t, RT.nth(list, 2)));
+      assertEquals("'q", text(src, t, quoted));
+      // each symbol occurrence has its own identity and span
+      assertEquals("x", text(src, t, v.nth(0)));
+      assertEquals(src.length() - 2, t.start(v.nth(1)));
+      assertNotSame(v.nth(0), v.nth(1));
+      // the discarded (gone) and its symbol are not recorded
+      for (int i = 0; i < t.size(); i++)
+        assertFalse(String.valueOf(t.form(i)).contains("gone"));
+      assertEquals(-1, t.start(new Object()));
+    }
+  }
+
+  @Test
+  public void testRecordingOrder() throws IOException {
+    Reader2 r = new Reader2(new StringReader("[1 [2]]"));
+    SpanTable t = r.trackSpans();
+    r.read();
+    assertEquals(4, t.size());
+    assertEquals(1L, t.form(0));                      // children complete before parents
+    assertEquals(0, t.start(3));
+    assertEquals(7, t.end(3));
+  }
+}
@@ -0,0 +1,98 @@
+package lijeur;
+
+import clojure.lang.Namespace;
+import clojure.lang.RT;
+import clojure.lang.Symbol;
+import clojure.lang.Var;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies that syntax-quote resolution matches {@code LispReader} and that the resolution memo
+ * follows changes to the current namespace's mappings and aliases.
+ */
+public class SymbolResolverTest {
+
+  private static final Symbol NS = Symbol.intern("lijeur.resolver-test");
+  private static final Symbol OTHER = Symbol.intern("lijeur.resolver-test.other");
+  private Namespace ns;
+  private Reader2 reader;
+
+  @BeforeEach
+  public void enterNamespace() {
+    Namespace.remove(NS);
+    Namespace.remove(OTHER);
+    ns = Namespace.findOrCreate(NS);
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, ns));
+    reader = new Reader2(new StringReader(""));
+  }
+
+  @AfterEach
+  public void leaveNamespace() {
+    Var.popThreadBindings();
+    Namespace.remove(NS);
+    Namespace.remove(OTHER);
+  }
+
+  // Reads with the same Reader2 every time, so its memo is exercised across reads.
+  private Object read(String s) throws IOException {
+    reader.reset(new StringReader(s));
+    return reader.read();
+  }
+
+  @Test
+  public void testMatchesLispReader() throws IOException {
+    ns.importClass(String.class);
+    for (String s : new String[]{"`x", "`String", "`String/valueOf", "`String/1", "`java.util.List",
+        "`Foo.", "`String.", "`.foo", "`if", "`(if a b)", "`clojure.core/map", "`nope/x",
+        "`[a String/CASE_INSENSITIVE_ORDER {b c}]", "`#{d}"}) {
+      assertEquals(RT.readString(s), read(s), s);
+      assertEquals(RT.readString(s), read(s), s + " (memoized)");
+    }
+  }
+
+  @Test
+  public void testMemoFollowsMappings() throws IOException {
+    assertEquals(quoted(NS.getName(), "foo"), read("`foo"));
+    Namespace other = Namespace.findOrCreate(OTHER);
+    ns.refer(Symbol.intern("foo"), other.intern(Symbol.intern("foo")));
+    assertEquals(quoted(OTHER.getName(), "foo"), read("`foo"));
+    ns.unmap(Symbol.intern("foo"));
+    assertEquals(quoted(NS.getName(), "foo"), read("`foo"));
+  }
+
+  @Test
+  public void testMemoFollowsAliases() throws IOException {
+    assertEquals(quoted("o", "x"), read("`o/x"));
+    ns.addAlias(Symbol.intern("o"), Namespace.findOrCreate(OTHER));
+    assertEquals(quoted(OTHER.getName(), "x"), read("`o/x"));
+  }
+
+  @Test
+  public void testMemoFollowsNamespace() throws IOException {
+    assertEquals(quoted(NS.getName(), "y"), read("`y"));
+    Var.pushThreadBindings(RT.map(RT.CURRENT_NS, Namespace.findOrCreate(OTHER)));
+    try {
+      assertEquals(quoted(OTHER.getName(), "y"), read("`y"));
+    } finally {
+      Var.popThreadBindings();
+    }
+  }
+
+  @Test
+  public void testIsSpecial() {
+    assertTrue(SymbolResolver.isSpecial(Symbol.intern("if")));
+    assertFalse(SymbolResolver.isSpecial(Symbol.intern("iff")));
+    assertFalse(SymbolResolver.isSpecial(RT.list(Symbol.intern("if"))));
+  }
+
+  private static Object quoted(String ns, String name) {
+    return RT.list(Symbol.intern("quote"), Symbol.intern(ns, name));
+  }
+}